@@ -0,0 +1,57 @@
+// Writes .gz and .br next to every compressible file of the browser bundle.
+// Spring serves them in place of the original when the client accepts the encoding.
+// Runs after `npm run build` (see "postbuild" in package.json).
+import { readdir, readFile, stat, writeFile } from 'node:fs/promises';
+import { join, extname } from 'node:path';
+import { brotliCompress, constants, gzip } from 'node:zlib';
+import { fileURLToPath } from 'node:url';
+import { promisify } from 'node:util';
+
+const BROWSER_DIR = new URL('../dist/frontend/browser/', import.meta.url);
+const EXTENSIONS = new Set(['.js', '.mjs', '.css', '.html', '.json', '.svg', '.txt', '.map', '.ico', '.webmanifest']);
+const MIN_SIZE = 1024; // below this the headers cost more than the savings
+
+const gzipAsync = promisify(gzip);
+const brotliAsync = promisify(brotliCompress);
+
+async function* walk(dir) {
+  for (const entry of await readdir(dir, { withFileTypes: true })) {
+    const path = join(dir, entry.name);
+    if (entry.isDirectory()) yield* walk(path);
+    else yield path;
+  }
+}
+
+async function compress(file) {
+  const input = await readFile(file);
+  const [gz, br] = await Promise.all([
+    gzipAsync(input, { level: 9 }),
+    brotliAsync(input, {
+      params: {
+        [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+        [constants.BROTLI_PARAM_SIZE_HINT]: input.length,
+      },
+    }),
+  ]);
+  // A variant that is not smaller is useless: let the original be served
+  if (gz.length < input.length) await writeFile(file + '.gz', gz);
+  if (br.length < input.length) await writeFile(file + '.br', br);
+  return { original: input.length, gzip: Math.min(gz.length, input.length), brotli: Math.min(br.length, input.length) };
+}
+
+const root = fileURLToPath(BROWSER_DIR);
+const totals = { files: 0, original: 0, gzip: 0, brotli: 0 };
+for await (const file of walk(root)) {
+  if (!EXTENSIONS.has(extname(file))) continue;
+  if ((await stat(file)).size < MIN_SIZE) continue;
+  const sizes = await compress(file);
+  totals.files++;
+  totals.original += sizes.original;
+  totals.gzip += sizes.gzip;
+  totals.brotli += sizes.brotli;
+}
+
+const kb = (bytes) => (bytes / 1024).toFixed(1) + ' kB';
+console.log(
+  `Precompressed ${totals.files} files: ${kb(totals.original)} -> gzip ${kb(totals.gzip)}, brotli ${kb(totals.brotli)}`
+);
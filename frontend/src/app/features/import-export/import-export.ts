@@ -1,7 +1,8 @@
-import { Component, OnInit, ChangeDetectorRef } from '@angular/core';
+import { Component, OnInit, OnDestroy, ChangeDetectorRef } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
 import { HttpClient } from '@angular/common/http';
+import { Subscription, timer, switchMap, takeWhile } from 'rxjs';
 import { PageService } from '../../services/page.service';
 import { Page, Type } from '../../models/page.model';
 import * as JSZip from 'jszip';
@@ -21,6 +22,21 @@ interface ImportPage {
   selected: boolean;
 }
 
+// A background import or export, as reported by /api/import-export/jobs/{id}
+interface Job {
+  id: string;
+  kind: 'import' | 'export';
+  status: 'queued' | 'running' | 'succeeded' | 'failed' | 'cancelled';
+  pagesProcessed: number;
+  pagesTotal?: number;
+  bytesProcessed: number;
+  bytesTotal?: number;
+  etaSeconds?: number;
+  error?: string;
+  result?: any;
+  resultUrl?: string;
+}
+
 interface HistoryEntry {
   date: string;
   action: 'import' | 'export';
@@ -35,7 +51,7 @@ interface HistoryEntry {
   templateUrl: './import-export.html',
   styleUrls: ['./import-export.scss']
 })
-export class ImportExportComponent implements OnInit {
+export class ImportExportComponent implements OnInit, OnDestroy {
 
   // ── Export ──────────────────────────────────────────────
   allPages: ExportPage[] = [];
@@ -80,6 +96,10 @@ export class ImportExportComponent implements OnInit {
     return this.importPages.length > 0 && this.importPages.every(p => p.selected);
   }
 
+  // ── Background job ──────────────────────────────────────
+  currentJob: Job | null = null;
+  private jobPolling?: Subscription;
+
   // ── History ─────────────────────────────────────────────
   history: HistoryEntry[] = [];
 
@@ -94,6 +114,10 @@ export class ImportExportComponent implements OnInit {
     this.loadHistory();
   }
 
+  ngOnDestroy(): void {
+    this.jobPolling?.unsubscribe();
+  }
+
   // ── Export methods ───────────────────────────────────────
 
   loadPages(): void {
@@ -130,22 +154,27 @@ export class ImportExportComponent implements OnInit {
     if (this.selectedPages.length === 0) return;
     this.isExporting = true;
     const ids = this.selectedPages.map(p => p.id as number);
-
-    this.http.post('/api/import-export/export', ids, { responseType: 'blob' }).subscribe({
-      next: blob => {
-        const url = window.URL.createObjectURL(blob);
-        const a = document.createElement('a');
-        a.href = url;
-        a.download = 'piki-export.zip';
-        a.click();
-        window.URL.revokeObjectURL(url);
-
-        this.addHistory('export', this.selectedPages.length,
-          `${this.selectedPages.length} page(s) exported`);
-        this.clearExportSelection();
-        this.isExporting = false;
-        this.cdr.detectChanges();
-      },
+    const count = ids.length;
+
+    this.http.post<Job>('/api/import-export/jobs/export', ids).subscribe({
+      next: job => this.followJob(job,
+        done => this.http.get(done.resultUrl!, { responseType: 'blob' }).subscribe({
+          next: blob => {
+            const url = window.URL.createObjectURL(blob);
+            const a = document.createElement('a');
+            a.href = url;
+            a.download = 'piki-export.zip';
+            a.click();
+            window.URL.revokeObjectURL(url);
+
+            this.addHistory('export', count, `${count} page(s) exported`);
+            this.clearExportSelection();
+            this.isExporting = false;
+            this.cdr.detectChanges();
+          },
+          error: () => { this.isExporting = false; this.cdr.detectChanges(); }
+        }),
+        () => { this.isExporting = false; }),
       error: () => { this.isExporting = false; this.cdr.detectChanges(); }
     });
   }
@@ -244,14 +273,19 @@ export class ImportExportComponent implements OnInit {
       formData.append('selectedTitles', p.title)
     );
 
-    this.http.post<any>('/api/import-export/import', formData).subscribe({
-      next: result => {
-        this.importResult = result;
-        this.addHistory('import', result.imported, result.message);
-        this.isImporting = false;
-        this.loadPages(); // Refresh export list
-        this.cdr.detectChanges();
-      },
+    this.http.post<Job>('/api/import-export/jobs/import', formData).subscribe({
+      next: job => this.followJob(job,
+        done => {
+          this.importResult = done.result;
+          this.addHistory('import', done.result.imported, done.result.message);
+          this.isImporting = false;
+          this.loadPages(); // Refresh export list
+        },
+        failed => {
+          this.importError = failed.status === 'cancelled' ? 'Import cancelled' : (failed.error || 'Import failed');
+          this.isImporting = false;
+          this.loadPages(); // Batches committed before the failure are kept
+        }),
       error: err => {
         this.importError = err.error?.error || 'Import failed';
         this.isImporting = false;
@@ -260,6 +294,50 @@ export class ImportExportComponent implements OnInit {
     });
   }
 
+  // ── Background jobs ──────────────────────────────────────
+
+  /** Polls the job every second until it ends, then calls done or failed. */
+  private followJob(job: Job, done: (job: Job) => void, failed: (job: Job) => void): void {
+    this.currentJob = job;
+    this.jobPolling?.unsubscribe();
+    this.jobPolling = timer(0, 1000).pipe(
+      switchMap(() => this.http.get<Job>(`/api/import-export/jobs/${job.id}`)),
+      takeWhile(j => j.status === 'queued' || j.status === 'running', true)
+    ).subscribe({
+      next: j => {
+        this.currentJob = j;
+        if (j.status === 'succeeded') {
+          this.currentJob = null;
+          done(j);
+        } else if (j.status === 'failed' || j.status === 'cancelled') {
+          this.currentJob = null;
+          failed(j);
+        }
+        this.cdr.detectChanges();
+      },
+      error: () => {
+        this.currentJob = null;
+        failed({ ...job, status: 'failed', error: 'Lost track of the job' });
+        this.cdr.detectChanges();
+      }
+    });
+  }
+
+  cancelJob(): void {
+    if (!this.currentJob) return;
+    this.http.delete<Job>(`/api/import-export/jobs/${this.currentJob.id}`).subscribe();
+  }
+
+  get jobProgressLabel(): string {
+    const job = this.currentJob;
+    if (!job) return '';
+    if (job.status === 'queued') return 'Waiting for another import/export…';
+    const pages = job.pagesTotal ? `${job.pagesProcessed}/${job.pagesTotal}` : `${job.pagesProcessed}`;
+    const percent = job.bytesTotal ? ` (${Math.floor(100 * job.bytesProcessed / job.bytesTotal)}%)` : '';
+    const eta = job.etaSeconds != null ? ` – about ${job.etaSeconds}s left` : '';
+    return `${pages} page(s)${percent}${eta}`;
+  }
+
   resetImport(): void {
     this.importFile = null;
     this.importPages = [];
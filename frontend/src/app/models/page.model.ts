@@ -18,6 +18,7 @@ export interface Page {
   tags: Tag[];
   createdAt?: string;
   updatedAt?: string;
+  version?: number;
 }
 
 export interface PageRequest {
@@ -26,3 +27,13 @@ export interface PageRequest {
   type: Type | null;
   tags: string[];
 }
+
+// Partial update: omitted fields are left unchanged. contentEdits offsets refer to the content of `version`.
+export interface PagePatch {
+  version: number;
+  title?: string;
+  type?: Type | { id: null };
+  tags?: string[];
+  content?: string;
+  contentEdits?: { start: number; end: number; text: string }[];
+}
@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Page, PageRequest, Type, Tag } from '../models/page.model';
+import { Page, PagePatch, PageRequest, Type, Tag } from '../models/page.model';
 
 @Injectable({
   providedIn: 'root'
@@ -29,6 +29,11 @@ export class PageService {
     return this.http.put<Page>(`${this.apiUrl}/${id}`, pageRequest);
   }
 
+  // Fails with 409 when the page was saved since patch.version
+  patchPage(id: number, patch: PagePatch): Observable<Page> {
+    return this.http.patch<Page>(`${this.apiUrl}/${id}`, patch);
+  }
+
   deletePage(id: number): Observable<void> {
     return this.http.delete<void>(`${this.apiUrl}/${id}`);
   }
@@ -3,6 +3,19 @@ import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { Tag } from '../models/page.model';
 
+export interface TagFilter {
+  tags?: number[];
+  anyTags?: number[];
+  notTags?: number[];
+  types?: number[];
+  notTypes?: number[];
+}
+
+export interface BulkTagResult {
+  tag: number;
+  affectedPages: number;
+}
+
 @Injectable({ providedIn: 'root' })
 export class TagService {
   private apiUrl = '/api/tags';
@@ -24,4 +37,12 @@ export class TagService {
   delete(id: number): Observable<void> {
     return this.http.delete<void>(`${this.apiUrl}/${id}`);
   }
+
+  merge(sourceIds: number[], targetId: number): Observable<BulkTagResult> {
+    return this.http.post<BulkTagResult>(`${this.apiUrl}/merge`, { sourceIds, targetId });
+  }
+
+  retag(id: number, action: 'add' | 'remove', target: { pageIds: number[] } | { filter: TagFilter }): Observable<BulkTagResult> {
+    return this.http.post<BulkTagResult>(`${this.apiUrl}/${id}/pages`, { action, ...target });
+  }
 }
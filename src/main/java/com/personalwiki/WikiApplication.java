@@ -2,8 +2,10 @@ package com.personalwiki;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WikiApplication {
     public static void main(String[] args) {
         SpringApplication.run(WikiApplication.class, args);
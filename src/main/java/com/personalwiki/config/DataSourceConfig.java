@@ -0,0 +1,61 @@
+package com.personalwiki.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * One writer, many readers on the embedded H2 database.
+ * <p>
+ * Writes keep going through a single connection ({@code spring.datasource.hikari.*}, size 1),
+ * so they are applied one after the other as before. Read-only transactions
+ * ({@code @Transactional(readOnly = true)}, and Spring Data's finders) get a connection from a
+ * separate pool of {@code piki.datasource.read-pool-size} connections instead: thanks to MVStore's
+ * MVCC they read the last committed state while a write or a long export is running.
+ * A read pool size of 0 sends everything to the writer.
+ * <p>
+ * The routing is done by {@link LazyConnectionDataSourceProxy}: the physical connection is only
+ * fetched once the transaction manager has marked it read-only or not.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("piki-write");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnExpression("${piki.datasource.read-pool-size:4} > 0")
+    public HikariDataSource readDataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                           @Value("${piki.datasource.read-pool-size:4}") int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        writeDataSource.copyStateTo(dataSource);
+        dataSource.setPoolName("piki-read");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") ObjectProvider<HikariDataSource> readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        readDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+}
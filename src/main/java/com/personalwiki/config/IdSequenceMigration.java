@@ -0,0 +1,51 @@
+package com.personalwiki.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids already in use.
+ * <p>
+ * Databases created before pages, tags and types moved from identity columns to pooled
+ * sequences have rows while their new sequences start at 1. Hibernate takes the value it
+ * reads as the top of a block of {@link #ALLOCATION_SIZE} ids, so the sequence is restarted
+ * at {@code MAX(id) + ALLOCATION_SIZE}. Does nothing once the sequences are ahead.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class IdSequenceMigration implements ApplicationRunner {
+
+    // Must match the allocationSize of the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "pages", "pages_seq",
+            "tags", "tags_seq",
+            "types", "types_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?",
+                    Long.class, sequence.toUpperCase());
+            if (maxId == null || maxId == 0 || next == null || next - ALLOCATION_SIZE >= maxId) return;
+
+            long restart = maxId + ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+            log.info("Restarted {} at {} (highest id in {}: {})", sequence, restart, table, maxId);
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.personalwiki.config;
+
+import com.personalwiki.model.CompressedTextConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves page bodies from the text column {@code page_contents.content} to the {@code body}
+ * column, compressing the large ones (see {@link CompressedTextConverter}).
+ * Runs after {@link PageContentMigration} and before the indexes are rebuilt; does nothing once
+ * the old column is gone. Works in batches and only picks rows not converted yet, so it is
+ * safe to re-run if interrupted.
+ */
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class PageBodyMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CompressedTextConverter converter;
+
+    private record Row(long pageId, String content) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE UPPER(TABLE_NAME) = 'PAGE_CONTENTS' AND UPPER(COLUMN_NAME) = 'CONTENT'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) return;
+
+        long rows = 0;
+        long textBytes = 0;
+        long storedBytes = 0;
+        List<Row> batch;
+        do {
+            batch = jdbcTemplate.query(
+                    "SELECT page_id, content FROM page_contents " +
+                            "WHERE body IS NULL AND content IS NOT NULL ORDER BY page_id LIMIT " + BATCH_SIZE,
+                    (rs, i) -> new Row(rs.getLong(1), rs.getString(2)));
+            List<Object[]> updates = batch.stream()
+                    .map(row -> new Object[]{converter.convertToDatabaseColumn(row.content()), row.pageId()})
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE page_contents SET body = ? WHERE page_id = ?", updates);
+
+            rows += batch.size();
+            for (int i = 0; i < batch.size(); i++) {
+                textBytes += batch.get(i).content().length();
+                storedBytes += ((byte[]) updates.get(i)[0]).length;
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        jdbcTemplate.execute("ALTER TABLE page_contents DROP COLUMN content");
+        log.info("Moved {} page bodies to page_contents.body: {} characters stored in {} bytes",
+                rows, textBytes, storedBytes);
+    }
+}
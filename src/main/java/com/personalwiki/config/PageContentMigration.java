@@ -0,0 +1,43 @@
+package com.personalwiki.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves page bodies from the old {@code pages.content} column to {@code page_contents}.
+ * Runs before the indexes are rebuilt; does nothing once the old column is gone.
+ * Safe to re-run if interrupted: rows already copied are skipped.
+ * <p>
+ * Bodies are copied as text into {@code page_contents.content}, from where
+ * {@link PageBodyMigration} encodes them into the {@code body} column.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class PageContentMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE UPPER(TABLE_NAME) = 'PAGES' AND UPPER(COLUMN_NAME) = 'CONTENT'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) return;
+
+        jdbcTemplate.execute("ALTER TABLE page_contents ADD COLUMN IF NOT EXISTS content TEXT");
+        int copied = jdbcTemplate.update(
+                "INSERT INTO page_contents (page_id, content) " +
+                        "SELECT p.id, p.content FROM pages p " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM page_contents c WHERE c.page_id = p.id)");
+        jdbcTemplate.execute("ALTER TABLE pages DROP COLUMN content");
+        log.info("Moved {} page bodies to page_contents", copied);
+    }
+}
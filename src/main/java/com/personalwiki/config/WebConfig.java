@@ -1,16 +1,45 @@
 package com.personalwiki.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private static final String FRONTEND_LOCATION = "classpath:/static/";
+
+    // Angular bundles are named like main-ABCD1234.js: their content never changes under a given name
+    private static final String HASHED_BUNDLE = "/{file:[\\w.-]+-[A-Z0-9]+\\.(?:js|mjs|css)}";
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve uploaded files
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:./data/uploads/");
+
+        // Frontend: the .br / .gz files written by the build are served when the client accepts them
+        CacheControl immutable = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+        registry.addResourceHandler(HASHED_BUNDLE)
+                .addResourceLocations(FRONTEND_LOCATION)
+                .setCacheControl(immutable)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+        registry.addResourceHandler("/media/**")
+                .addResourceLocations(FRONTEND_LOCATION + "media/")
+                .setCacheControl(immutable)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        // Everything else (index.csr.html, favicon, ...) keeps its name across builds: revalidate
+        registry.addResourceHandler("/**")
+                .addResourceLocations(FRONTEND_LOCATION)
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
     }
 }
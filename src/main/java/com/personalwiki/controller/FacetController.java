@@ -0,0 +1,50 @@
+package com.personalwiki.controller;
+
+import com.personalwiki.search.FacetIndex;
+import com.personalwiki.service.FacetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/facets")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class FacetController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final FacetService facetService;
+
+    // GET /api/facets?tags=1,2&anyTags=3,4&notTags=5&types=1&notTypes=2&page=0&size=50
+    // tags: all required, anyTags: at least one, notTags: none; types: any of, notTypes: none
+    @GetMapping
+    public ResponseEntity<?> filter(
+            @RequestParam(required = false) List<Long> tags,
+            @RequestParam(required = false) List<Long> anyTags,
+            @RequestParam(required = false) List<Long> notTags,
+            @RequestParam(required = false) List<Long> types,
+            @RequestParam(required = false) List<Long> notTypes,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (!facetService.isReady()) {
+            return ResponseEntity.status(503).build();
+        }
+        FacetIndex.Filter filter = new FacetIndex.Filter(
+                orEmpty(tags), orEmpty(anyTags), orEmpty(notTags), orEmpty(types), orEmpty(notTypes));
+        int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        try {
+            return ResponseEntity.ok(facetService.filter(filter, Math.max(page, 0), safeSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static List<Long> orEmpty(List<Long> ids) {
+        return ids != null ? ids : List.of();
+    }
+}
@@ -0,0 +1,73 @@
+package com.personalwiki.controller;
+
+import com.personalwiki.dto.NeighborhoodDTO;
+import com.personalwiki.dto.PageLinksResultDTO;
+import com.personalwiki.service.LinkGraphService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/pages")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class LinkController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_HOPS = 5;
+    private static final int MAX_NODES = 1000;
+
+    private final LinkGraphService linkGraphService;
+
+    // GET /api/pages/{id}/backlinks - Pages linking to this one
+    @GetMapping("/{id}/backlinks")
+    public ResponseEntity<PageLinksResultDTO> getBacklinks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (!linkGraphService.isReady()) return ResponseEntity.status(503).build();
+        if (!linkGraphService.contains(id)) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(linkGraphService.backlinks(id, Math.max(page, 0), safeSize(size)));
+    }
+
+    // GET /api/pages/{id}/links - Pages this one links to
+    @GetMapping("/{id}/links")
+    public ResponseEntity<PageLinksResultDTO> getOutgoingLinks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (!linkGraphService.isReady()) return ResponseEntity.status(503).build();
+        if (!linkGraphService.contains(id)) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(linkGraphService.outgoing(id, Math.max(page, 0), safeSize(size)));
+    }
+
+    // GET /api/pages/{id}/neighborhood?hops=2 - Pages within N links, in either direction
+    @GetMapping("/{id}/neighborhood")
+    public ResponseEntity<NeighborhoodDTO> getNeighborhood(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int hops,
+            @RequestParam(defaultValue = "200") int limit
+    ) {
+        if (!linkGraphService.isReady()) return ResponseEntity.status(503).build();
+        if (!linkGraphService.contains(id)) return ResponseEntity.notFound().build();
+        int safeHops = Math.min(Math.max(hops, 1), MAX_HOPS);
+        int safeLimit = Math.min(Math.max(limit, 1), MAX_NODES);
+        return ResponseEntity.ok(linkGraphService.neighborhood(id, safeHops, safeLimit));
+    }
+
+    // GET /api/pages/orphans - Pages no other page links to
+    @GetMapping("/orphans")
+    public ResponseEntity<PageLinksResultDTO> getOrphans(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (!linkGraphService.isReady()) return ResponseEntity.status(503).build();
+        return ResponseEntity.ok(linkGraphService.orphans(Math.max(page, 0), safeSize(size)));
+    }
+
+    private static int safeSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+}
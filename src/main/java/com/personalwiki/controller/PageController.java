@@ -1,15 +1,26 @@
 package com.personalwiki.controller;
 
+import com.personalwiki.dto.PagePatchDTO;
 import com.personalwiki.dto.PageRequestDTO;
+import com.personalwiki.dto.PageSummaryListDTO;
 import com.personalwiki.model.Page;
 import com.personalwiki.model.Tag;
+import com.personalwiki.service.MarkdownService;
 import com.personalwiki.service.PageService;
+import com.personalwiki.service.PageStreamService;
+import com.personalwiki.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/pages")
@@ -17,7 +28,12 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200") // for Angular in dev
 public class PageController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final PageService pageService;
+    private final MarkdownService markdownService;
+    private final PageStreamService pageStreamService;
+    private final ResourceVersionService resourceVersionService;
 
     // GET /api/pages - Retrieve all the pages
     @GetMapping
@@ -26,11 +42,46 @@ public class PageController {
         return ResponseEntity.ok(pages);
     }
 
-    // GET /api/pages/{id} - Retrieve one page
+    // GET /api/pages/summaries?size=50&cursor=xxx - Pages without content, newest first
+    // Pass the returned nextCursor to get the following page
+    @GetMapping("/summaries")
+    public ResponseEntity<PageSummaryListDTO> getPageSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        try {
+            int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+            return ResponseEntity.ok(pageService.listSummaries(cursor, safeSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET /api/pages/{id} - Retrieve one page (304 when If-None-Match is still current)
     @GetMapping("/{id}")
-    public ResponseEntity<Page> getPageById(@PathVariable Long id) {
+    public ResponseEntity<Page> getPageById(@PathVariable Long id, WebRequest request) {
+        // Versions are read before the page, so a concurrent edit can only make the ETag older
+        String etag = resourceVersionService.pageEtag(id);
+        if (etag != null && request.checkNotModified(etag, resourceVersionService.pageLastModified(id))) {
+            return null;
+        }
         return pageService.getPageById(id)
-                .map(ResponseEntity::ok)
+                .map(page -> ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(page))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET /api/pages/{id}/html - Content rendered to HTML on the server (304 when If-None-Match is still current)
+    @GetMapping(value = "/{id}/html", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> getRenderedPage(@PathVariable Long id, WebRequest request) {
+        // As in getPageById: the version is read before the body, so the ETag is never newer than the HTML
+        String etag = resourceVersionService.pageContentEtag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return pageService.getPageContent(id)
+                .map(content -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(markdownService.render(markdownService.hash(content), content).html()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,6 +110,20 @@ public class PageController {
         }
     }
 
+    // PATCH /api/pages/{id} - Update only the given fields, or edit the content in place (409 if saved meanwhile)
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchPage(@PathVariable Long id, @RequestBody PagePatchDTO patch) {
+        try {
+            return ResponseEntity.ok(pageService.patchPage(id, patch));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     // DELETE /api/pages/{id} - Delete a page
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePage(@PathVariable Long id) {
@@ -66,17 +131,55 @@ public class PageController {
         return ResponseEntity.noContent().build();
     }
 
-    // GET /api/pages/search?title=xxx - Simple search
+    // GET /api/pages/search?title=xxx (or ?content=xxx) - Substring search
     @GetMapping("/search")
-    public ResponseEntity<List<Page>> searchPages(@RequestParam String title) {
-        List<Page> pages = pageService.searchByTitle(title);
-        return ResponseEntity.ok(pages);
+    public ResponseEntity<List<Page>> searchPages(@RequestParam(required = false) String title,
+                                                  @RequestParam(required = false) String content) {
+        if (title != null) {
+            return ResponseEntity.ok(pageService.searchByTitle(title));
+        }
+        if (content != null) {
+            return ResponseEntity.ok(pageService.searchByContent(content));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    // GET /api/pages/stream - Same as GET /api/pages, written as the rows are read
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllPages() {
+        return streamed(pageStreamService::writeAll);
+    }
+
+    // GET /api/pages/type/{typeId}/stream - Same as GET /api/pages/type/{typeId}, streamed
+    @GetMapping("/type/{typeId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamPagesByType(@PathVariable Long typeId) {
+        return streamed(out -> pageStreamService.writeByType(typeId, out));
+    }
+
+    // GET /api/pages/search/stream?title=xxx (or ?content=xxx) - Same as /search, streamed
+    @GetMapping("/search/stream")
+    public ResponseEntity<StreamingResponseBody> streamSearchPages(@RequestParam(required = false) String title,
+                                                                   @RequestParam(required = false) String content) {
+        if (title != null) {
+            return streamed(out -> pageStreamService.writeByTitle(title, out));
+        }
+        if (content != null) {
+            return streamed(out -> pageStreamService.writeByContent(content, out));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamed(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // GET /api/pages/tags Retrieve the tags
     @GetMapping("/tags")
-    public ResponseEntity<List<Tag>> getAllTags() {
+    public ResponseEntity<List<Tag>> getAllTags(WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.tagsEtag())) {
+            return null;
+        }
         List<Tag> tags = pageService.getAllTags();
-        return ResponseEntity.ok(tags);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(tags);
     }
 }
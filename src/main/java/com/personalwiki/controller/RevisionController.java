@@ -0,0 +1,44 @@
+package com.personalwiki.controller;
+
+import com.personalwiki.dto.RevisionDTO;
+import com.personalwiki.dto.RevisionDiffDTO;
+import com.personalwiki.dto.RevisionSummaryDTO;
+import com.personalwiki.service.RevisionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/pages")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class RevisionController {
+
+    private final RevisionService revisionService;
+
+    // GET /api/pages/{id}/revisions - Revisions of a page, newest first (without their content)
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<List<RevisionSummaryDTO>> listRevisions(@PathVariable Long id) {
+        return ResponseEntity.ok(revisionService.listRevisions(id));
+    }
+
+    // GET /api/pages/{id}/revisions/{revision} - Title and content of one revision
+    @GetMapping("/{id}/revisions/{revision}")
+    public ResponseEntity<RevisionDTO> getRevision(@PathVariable Long id, @PathVariable int revision) {
+        return revisionService.getRevision(id, revision)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET /api/pages/{id}/revisions/diff?from=3&to=7 - Line diff between two revisions
+    @GetMapping("/{id}/revisions/diff")
+    public ResponseEntity<RevisionDiffDTO> diff(@PathVariable Long id,
+                                                @RequestParam int from,
+                                                @RequestParam int to) {
+        return revisionService.diff(id, from, to)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,30 @@
+package com.personalwiki.controller;
+
+import com.personalwiki.dto.SearchResultDTO;
+import com.personalwiki.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class SearchController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final SearchService searchService;
+
+    // GET /api/search?q=xxx&page=0&size=20&fuzzy=false - Ranked full-text search
+    // fuzzy=true also matches words within one or two typos, ranked below exact matches
+    @GetMapping
+    public ResponseEntity<SearchResultDTO> search(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "20") int size,
+                                                  @RequestParam(defaultValue = "false") boolean fuzzy) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(searchService.search(q, safePage, safeSize, fuzzy));
+    }
+}
@@ -0,0 +1,41 @@
+package com.personalwiki.controller;
+
+import com.personalwiki.dto.UsageStatsDTO;
+import com.personalwiki.render.RenderCache;
+import com.personalwiki.service.MarkdownService;
+import com.personalwiki.service.ReferenceDataCache;
+import com.personalwiki.service.UsageCounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class StatsController {
+
+    private final ReferenceDataCache referenceDataCache;
+    private final UsageCounterService usageCounterService;
+    private final MarkdownService markdownService;
+
+    // GET /api/stats/cache - Sizes, hits and misses of the type and tag caches
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cache() {
+        return ResponseEntity.ok(referenceDataCache.stats());
+    }
+
+    // GET /api/stats/render - Size, hits and misses of the rendered HTML cache
+    @GetMapping("/render")
+    public ResponseEntity<RenderCache.Stats> render() {
+        return ResponseEntity.ok(markdownService.stats());
+    }
+
+    // GET /api/stats/usage - Number of pages of every tag and type
+    @GetMapping("/usage")
+    public ResponseEntity<UsageStatsDTO> usage() {
+        return ResponseEntity.ok(usageCounterService.usage());
+    }
+}
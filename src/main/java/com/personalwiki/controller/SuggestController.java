@@ -0,0 +1,25 @@
+package com.personalwiki.controller;
+
+import com.personalwiki.dto.SuggestResultDTO;
+import com.personalwiki.service.SuggestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/suggest")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class SuggestController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final SuggestService suggestService;
+
+    // GET /api/suggest?prefix=doc&limit=10 - Page titles, tags and types starting with the prefix
+    @GetMapping
+    public ResponseEntity<SuggestResultDTO> suggest(@RequestParam String prefix,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, Math.min(Math.max(limit, 1), MAX_LIMIT)));
+    }
+}
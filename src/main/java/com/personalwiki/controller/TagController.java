@@ -1,11 +1,21 @@
 package com.personalwiki.controller;
 
+import com.personalwiki.dto.BulkRetagDTO;
+import com.personalwiki.dto.TagMergeDTO;
+import com.personalwiki.event.TagChangedEvent;
 import com.personalwiki.model.Tag;
 import com.personalwiki.repository.TagRepository;
-import jakarta.transaction.Transactional;
+import com.personalwiki.search.FacetIndex;
+import com.personalwiki.service.FacetService;
+import com.personalwiki.service.ReferenceDataCache;
+import com.personalwiki.service.ResourceVersionService;
+import com.personalwiki.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -18,9 +28,30 @@ public class TagController {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    // Answered with 304 while no tag was written since the client's copy
     @GetMapping
-    public List<Tag> getAllTags() {
-        return tagRepository.findAll();
+    public ResponseEntity<List<Tag>> getAllTags(WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.tagsEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(referenceDataCache.allTags());
     }
 
     @PostMapping
@@ -32,32 +63,82 @@ public class TagController {
         if (tagRepository.findByNameIgnoreCase(name).isPresent()) {
             return ResponseEntity.badRequest().body(Map.of("error", "Tag '" + name + "' existe déjà"));
         }
-        return ResponseEntity.ok(tagRepository.save(new Tag(name)));
+        Tag saved = tagRepository.save(new Tag(name));
+        eventPublisher.publishEvent(new TagChangedEvent(saved.getId(), saved.getName(), false));
+        return ResponseEntity.ok(saved);
     }
 
+    // PUT /api/tags/{id} - Rename; onto the name of another tag, the two are merged
     @PutMapping("/{id}")
-    @Transactional
     public ResponseEntity<?> renameTag(@PathVariable Long id, @RequestBody Map<String, String> body) {
         String name = body.getOrDefault("name", "").toLowerCase().trim();
         if (name.isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "Le nom est requis"));
         }
-        return tagRepository.findById(id).map(tag -> {
-            if (tagRepository.findByNameIgnoreCase(name).filter(t -> !t.getId().equals(id)).isPresent()) {
-                return ResponseEntity.badRequest().<Tag>body(null);
-            }
-            tag.setName(name);
-            return ResponseEntity.ok(tagRepository.save(tag));
-        }).orElse(ResponseEntity.notFound().build());
+        try {
+            return ResponseEntity.ok(tagService.renameTag(id, name));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
+    // DELETE /api/tags/{id} - Delete a tag and drop it from its pages
     @DeleteMapping("/{id}")
-    @Transactional
     public ResponseEntity<?> deleteTag(@PathVariable Long id) {
-        return tagRepository.findById(id).map(tag -> {
-            tag.getPages().forEach(page -> page.getTags().remove(tag));
-            tagRepository.delete(tag);
-            return ResponseEntity.noContent().<Void>build();
-        }).orElse(ResponseEntity.notFound().build());
+        try {
+            tagService.deleteTag(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // POST /api/tags/merge - Move the pages of the source tags to the target, then delete the sources
+    @PostMapping("/merge")
+    public ResponseEntity<?> mergeTags(@RequestBody TagMergeDTO body) {
+        if (body.getTargetId() == null || body.getSourceIds() == null || body.getSourceIds().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sourceIds et targetId sont requis"));
+        }
+        try {
+            int affected = tagService.mergeTags(body.getSourceIds(), body.getTargetId());
+            return ResponseEntity.ok(Map.of("tag", body.getTargetId(), "affectedPages", affected));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // POST /api/tags/{id}/pages - Add the tag to, or remove it from, a list of pages or a facet filter
+    @PostMapping("/{id}/pages")
+    public ResponseEntity<?> retag(@PathVariable Long id, @RequestBody BulkRetagDTO body) {
+        TagService.RetagAction action;
+        try {
+            action = TagService.RetagAction.valueOf(String.valueOf(body.getAction()).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "action doit valoir 'add' ou 'remove'"));
+        }
+        if ((body.getPageIds() == null) == (body.getFilter() == null)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Indiquer soit pageIds, soit filter"));
+        }
+
+        List<Long> pageIds = body.getPageIds();
+        if (body.getFilter() != null) {
+            if (!facetService.isReady()) {
+                return ResponseEntity.status(503).build();
+            }
+            BulkRetagDTO.Filter f = body.getFilter();
+            pageIds = facetService.pageIds(new FacetIndex.Filter(
+                    orEmpty(f.getTags()), orEmpty(f.getAnyTags()), orEmpty(f.getNotTags()),
+                    orEmpty(f.getTypes()), orEmpty(f.getNotTypes())));
+        }
+        try {
+            int affected = tagService.retag(id, action, pageIds);
+            return ResponseEntity.ok(Map.of("tag", id, "affectedPages", affected));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private static List<Long> orEmpty(List<Long> ids) {
+        return ids != null ? ids : List.of();
     }
 }
@@ -1,10 +1,13 @@
 package com.personalwiki.controller;
 
 import com.personalwiki.model.Type;
+import com.personalwiki.service.ResourceVersionService;
 import com.personalwiki.service.TypeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -17,15 +20,27 @@ public class TypeController {
     @Autowired
     private TypeService typeService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    // Answered with 304 while no type was written since the client's copy
     @GetMapping
-    public List<Type> getAllTypes() {
-        return typeService.getAllTypes();
+    public ResponseEntity<List<Type>> getAllTypes(WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.typesEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(typeService.getAllTypes());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Type> getTypeById(@PathVariable Long id) {
+    public ResponseEntity<Type> getTypeById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.typesEtag())) {
+            return null;
+        }
         return typeService.getTypeById(id)
-                .map(ResponseEntity::ok)
+                .map(type -> ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(type))
                 .orElse(ResponseEntity.notFound().build());
     }
 
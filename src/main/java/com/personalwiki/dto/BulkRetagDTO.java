@@ -0,0 +1,26 @@
+package com.personalwiki.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Adds a tag to, or removes it from, many pages at once.
+ * The pages are either listed in {@code pageIds} or selected with {@code filter}, as in a facet search.
+ */
+@Data
+public class BulkRetagDTO {
+    private String action;        // "add" or "remove"
+    private List<Long> pageIds;
+    private Filter filter;
+
+    /** Tag and type ids, with the meaning of the facet search parameters of the same names. */
+    @Data
+    public static class Filter {
+        private List<Long> tags;
+        private List<Long> anyTags;
+        private List<Long> notTags;
+        private List<Long> types;
+        private List<Long> notTypes;
+    }
+}
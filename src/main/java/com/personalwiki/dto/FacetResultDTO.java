@@ -0,0 +1,20 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetResultDTO {
+    private long total;
+    private int page;
+    private int size;
+    private List<Long> pageIds;
+    private Map<Long, Integer> tagCounts;   // tag id -> matching pages carrying it
+    private Map<Long, Integer> typeCounts;  // type id -> matching pages of that type
+}
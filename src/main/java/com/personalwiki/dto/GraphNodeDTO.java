@@ -0,0 +1,14 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphNodeDTO {
+    private Long id;
+    private String title;
+    private int distance;   // hops from the starting page
+}
@@ -0,0 +1,47 @@
+package com.personalwiki.dto;
+
+import com.personalwiki.job.Job;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/** State and progress of a background import or export. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDTO {
+    private String id;
+    private String kind;              // "import" or "export"
+    private String status;            // queued, running, succeeded, failed or cancelled
+    private int pagesProcessed;
+    private Integer pagesTotal;       // null for imports: known at the end only
+    private long bytesProcessed;
+    private Long bytesTotal;          // null for exports
+    private Long etaSeconds;          // null when not running or not yet known
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private Map<String, Object> result;
+    private String resultUrl;         // the archive of a finished export
+
+    public static JobDTO from(Job job) {
+        return new JobDTO(job.getId(),
+                job.getKind().name().toLowerCase(),
+                job.getStatus().name().toLowerCase(),
+                job.getPagesProcessed().get(),
+                job.getPagesTotal(),
+                job.getBytesProcessed().get(),
+                job.getBytesTotal(),
+                job.etaSeconds(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getError(),
+                job.getResult(),
+                job.getResultFile() != null ? "/api/import-export/jobs/" + job.getId() + "/result" : null);
+    }
+}
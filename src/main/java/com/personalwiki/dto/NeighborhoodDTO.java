@@ -0,0 +1,18 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NeighborhoodDTO {
+    private Long pageId;
+    private int hops;
+    private List<GraphNodeDTO> nodes;
+    private List<GraphEdgeDTO> edges;
+    private boolean truncated;   // true when the node limit was reached before the last hop
+}
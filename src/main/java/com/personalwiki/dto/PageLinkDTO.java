@@ -0,0 +1,13 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageLinkDTO {
+    private Long id;
+    private String title;
+}
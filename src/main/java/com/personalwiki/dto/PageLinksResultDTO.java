@@ -0,0 +1,17 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageLinksResultDTO {
+    private int total;
+    private int page;
+    private int size;
+    private List<PageLinkDTO> pages;
+}
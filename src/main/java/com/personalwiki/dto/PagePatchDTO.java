@@ -0,0 +1,33 @@
+package com.personalwiki.dto;
+
+import com.personalwiki.model.Type;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Partial update of a page: absent (null) fields are left unchanged.
+ * The body is either replaced with {@code content} or edited with {@code contentEdits},
+ * whose offsets refer to the body of {@code version}.
+ */
+@Data
+public class PagePatchDTO {
+    private Long version;                 // required: the page version the changes were made against
+    private String title;
+    private Type type;                    // only the id is used; {"id": null} removes the type
+    private List<String> tags;
+    private String content;
+    private List<TextEdit> contentEdits;  // sorted, non-overlapping
+
+    /** Replaces the characters [start, end) of the body with {@code text}. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TextEdit {
+        private int start;
+        private int end;
+        private String text;
+    }
+}
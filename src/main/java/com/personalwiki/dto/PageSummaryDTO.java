@@ -0,0 +1,38 @@
+package com.personalwiki.dto;
+
+import com.personalwiki.model.Type;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page without its content, for listings.
+ * Built straight from a JPQL constructor expression; tag names are filled in afterwards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageSummaryDTO {
+    private Long id;
+    private String title;
+    private Type type;   // unmanaged copy, same JSON shape as on Page
+    private List<String> tags = new ArrayList<>();
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public PageSummaryDTO(Long id, String title, Long typeId, String typeName, String typeColor, String typeIcon,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        if (typeId != null) {
+            this.type = new Type(typeName, typeColor, typeIcon);
+            this.type.setId(typeId);
+        }
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageSummaryListDTO {
+    private List<PageSummaryDTO> pages;
+    private int size;
+    private String nextCursor;   // null on the last page
+}
@@ -0,0 +1,18 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionDTO {
+    private Long pageId;
+    private int revision;
+    private String title;
+    private String content;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionDiffDTO {
+    private int from;
+    private int to;
+    private String fromTitle;
+    private String toTitle;
+    private List<DiffChunkDTO> chunks;
+
+    /**
+     * A run of lines: "equal" (lines omitted, only counted), "delete" (lines of the old
+     * revision) or "insert" (lines of the new one). Line numbers start at 0.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DiffChunkDTO {
+        private String op;
+        private int fromLine;
+        private int toLine;
+        private int count;
+        private List<String> lines;
+    }
+}
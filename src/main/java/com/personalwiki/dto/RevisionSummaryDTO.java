@@ -0,0 +1,18 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionSummaryDTO {
+    private int revision;
+    private String title;
+    private int length;          // body length in characters
+    private boolean snapshot;    // stored whole rather than as a delta
+    private LocalDateTime createdAt;
+}
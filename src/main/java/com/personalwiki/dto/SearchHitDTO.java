@@ -0,0 +1,25 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A search result without the page content.
+ * {@code highlightedTitle} and {@code snippets} are HTML-escaped, matches are wrapped in {@code <mark>}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+    private Long id;
+    private String title;
+    private String highlightedTitle;
+    private Long typeId;
+    private String typeName;
+    private List<String> tags;
+    private float score;
+    private List<String> snippets;
+}
@@ -0,0 +1,16 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResultDTO {
+    private List<SuggestionDTO> pages;  // most recently updated first
+    private List<SuggestionDTO> tags;   // most used first
+    private List<SuggestionDTO> types;  // most used first
+}
@@ -0,0 +1,16 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Tags to fold into {@code targetId}; they are deleted once their pages carry the target. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagMergeDTO {
+    private List<Long> sourceIds;
+    private Long targetId;
+}
@@ -0,0 +1,25 @@
+package com.personalwiki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Number of pages carrying each tag and each type. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageStatsDTO {
+    private List<Usage> tags;
+    private List<Usage> types;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Usage {
+        private Long id;
+        private String name;
+        private long pages;
+    }
+}
@@ -0,0 +1,27 @@
+package com.personalwiki.event;
+
+import com.personalwiki.model.Page;
+import com.personalwiki.search.PageDocument;
+import lombok.Value;
+
+/**
+ * Published by {@link com.personalwiki.service.PageService} on every page write.
+ * Listeners receive it after the transaction commits.
+ */
+@Value
+public class PageChangedEvent {
+    Long pageId;
+    PageDocument document; // null when the page was deleted
+
+    public static PageChangedEvent saved(Page page) {
+        return new PageChangedEvent(page.getId(), PageDocument.from(page));
+    }
+
+    public static PageChangedEvent deleted(Long pageId) {
+        return new PageChangedEvent(pageId, null);
+    }
+
+    public boolean isDeleted() {
+        return document == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.personalwiki.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published when the tags or the type of pages change but not their title or body, e.g.
+ * one of their tags or their type was renamed or deleted. Listeners refresh the listed
+ * pages after the transaction commits, reloading bodies only where an index reads them.
+ */
+@Value
+public class PagesChangedEvent {
+    List<Long> pageIds;
+}
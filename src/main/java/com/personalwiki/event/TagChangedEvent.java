@@ -0,0 +1,13 @@
+package com.personalwiki.event;
+
+import lombok.Value;
+
+/**
+ * Published when a tag is created (directly or by a page save), renamed or deleted.
+ */
+@Value
+public class TagChangedEvent {
+    Long tagId;
+    String name;
+    boolean deleted;
+}
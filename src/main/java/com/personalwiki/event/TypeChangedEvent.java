@@ -0,0 +1,13 @@
+package com.personalwiki.event;
+
+import lombok.Value;
+
+/**
+ * Published when a type is created, updated or deleted.
+ */
+@Value
+public class TypeChangedEvent {
+    Long typeId;
+    String name;
+    boolean deleted;
+}
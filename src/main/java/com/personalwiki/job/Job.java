@@ -0,0 +1,112 @@
+package com.personalwiki.job;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An import or export running in the background. Written by the job thread and read by
+ * progress requests, hence the volatile and atomic fields.
+ */
+@Getter
+public class Job implements JobProgress {
+
+    public enum Kind { IMPORT, EXPORT }
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    private final String id;
+    private final Kind kind;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final Integer pagesTotal;     // null when only known at the end (imports)
+    private final Long bytesTotal;        // null when only known at the end (exports)
+    private final AtomicInteger pagesProcessed = new AtomicInteger();
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private volatile Map<String, Object> result;
+    private volatile Path resultFile;
+    private volatile boolean cancelRequested;
+
+    public Job(String id, Kind kind, Integer pagesTotal, Long bytesTotal) {
+        this.id = id;
+        this.kind = kind;
+        this.pagesTotal = pagesTotal;
+        this.bytesTotal = bytesTotal;
+    }
+
+    @Override
+    public void pagesProcessed(int count) {
+        pagesProcessed.addAndGet(count);
+    }
+
+    @Override
+    public void checkCancelled() {
+        if (cancelRequested) throw new CancellationException("Job " + id + " was cancelled");
+    }
+
+    public void addBytes(long count) {
+        bytesProcessed.addAndGet(count);
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void succeed(Map<String, Object> result, Path resultFile) {
+        this.result = result;
+        this.resultFile = resultFile;
+        finish(Status.SUCCEEDED);
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    public void markCancelled() {
+        finish(Status.CANCELLED);
+    }
+
+    private void finish(Status status) {
+        finishedAt = LocalDateTime.now();
+        this.status = status;
+    }
+
+    /**
+     * Seconds left, extrapolated from the progress so far (bytes read for imports, pages
+     * written for exports), or null while there is nothing to extrapolate from.
+     */
+    public Long etaSeconds() {
+        if (status != Status.RUNNING) return null;
+        double done;
+        if (bytesTotal != null && bytesTotal > 0) {
+            done = (double) bytesProcessed.get() / bytesTotal;
+        } else if (pagesTotal != null && pagesTotal > 0) {
+            done = (double) pagesProcessed.get() / pagesTotal;
+        } else {
+            return null;
+        }
+        if (done <= 0) return null;
+        long elapsedMillis = Duration.between(startedAt, LocalDateTime.now()).toMillis();
+        return Math.max(0, Math.round(elapsedMillis * (1 - Math.min(done, 1)) / done / 1000));
+    }
+}
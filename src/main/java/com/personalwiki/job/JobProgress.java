@@ -0,0 +1,27 @@
+package com.personalwiki.job;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * What a long import or export reports while it runs, and where it stops when cancelled.
+ * Cancellation is cooperative: the work is never interrupted, since an interrupted thread
+ * makes H2 close the database file under every other connection.
+ */
+public interface JobProgress {
+
+    /** For work run directly on a request thread. */
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void pagesProcessed(int count) {
+        }
+
+        @Override
+        public void checkCancelled() {
+        }
+    };
+
+    void pagesProcessed(int count);
+
+    /** Throws {@link CancellationException} once the job was cancelled. */
+    void checkCancelled();
+}
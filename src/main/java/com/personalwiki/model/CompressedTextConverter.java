@@ -0,0 +1,123 @@
+package com.personalwiki.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores text as bytes, deflated when it is large enough for this to pay off.
+ * <p>
+ * The first byte tells how the rest is stored: {@link #RAW} UTF-8, or {@link #DEFLATE}
+ * (fastest level, no zlib header) preceded by the raw length, so that reading allocates the
+ * text once. Texts under {@code piki.storage.compress-threshold} bytes, and texts that do not
+ * shrink, are stored raw, so small pages cost nothing to read.
+ */
+@Component
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    static final byte RAW = 0;
+    static final byte DEFLATE = 1;
+
+    private final int threshold;
+
+    public CompressedTextConverter(@Value("${piki.storage.compress-threshold:4096}") int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) return null;
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= threshold) {
+            byte[] deflated = deflate(utf8);
+            if (deflated != null) return deflated;
+        }
+        byte[] stored = new byte[utf8.length + 1];
+        stored[0] = RAW;
+        System.arraycopy(utf8, 0, stored, 1, utf8.length);
+        return stored;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        if (stored == null) return null;
+        if (stored.length == 0) return "";
+        return switch (stored[0]) {
+            case RAW -> new String(stored, 1, stored.length - 1, StandardCharsets.UTF_8);
+            case DEFLATE -> new String(inflate(stored, Integer.MAX_VALUE), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unknown text encoding: " + stored[0]);
+        };
+    }
+
+    /**
+     * The first {@code maxChars} characters of a stored text, or all of it when shorter.
+     * Only that much is inflated, so a snippet near the top of a large body stays cheap.
+     */
+    public String convertToEntityAttribute(byte[] stored, int maxChars) {
+        if (stored == null) return null;
+        if (stored.length == 0) return "";
+        // A char takes at most 3 UTF-8 bytes; a few more cover a sequence cut at the end
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, 3L * maxChars + 4);
+        String text = switch (stored[0]) {
+            case RAW -> new String(stored, 1, Math.min(stored.length - 1, maxBytes), StandardCharsets.UTF_8);
+            case DEFLATE -> new String(inflate(stored, maxBytes), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unknown text encoding: " + stored[0]);
+        };
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    /** Marker, raw length and deflated text, or null when that is not smaller than the raw text. */
+    private static byte[] deflate(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 3 + 16);
+            out.write(DEFLATE);
+            out.write(utf8.length >>> 24);
+            out.write(utf8.length >>> 16);
+            out.write(utf8.length >>> 8);
+            out.write(utf8.length);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+                if (out.size() > utf8.length) return null;
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** The first {@code maxBytes} bytes of the deflated text at most. */
+    private static byte[] inflate(byte[] stored, int maxBytes) {
+        int length = (stored[1] & 0xFF) << 24 | (stored[2] & 0xFF) << 16 | (stored[3] & 0xFF) << 8 | (stored[4] & 0xFF);
+        length = Math.min(length, maxBytes);
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(stored, 5, stored.length - 5);
+            byte[] utf8 = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int count = inflater.inflate(utf8, read, length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                read += count;
+            }
+            return utf8;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
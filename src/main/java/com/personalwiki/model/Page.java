@@ -8,7 +8,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "pages")
+@Table(name = "pages", indexes = {
+        // Keyset pagination of the listing walks this index
+        @Index(name = "idx_pages_updated_at_id", columnList = "updated_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,14 +19,17 @@ import java.util.Set;
 @ToString(exclude = {"tags"})
 public class Page {
 
+    // Pooled sequence: ids are reserved 50 at a time, which lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pages_seq")
+    @SequenceGenerator(name = "pages_seq", sequenceName = "pages_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
     private String title;
 
-    @Column(columnDefinition = "TEXT")
+    // Stored in page_contents (see PageContent) and filled in by PageService only when needed
+    @Transient
     private String content;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -44,6 +50,12 @@ public class Page {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Incremented on every save; PATCH requests must name the version they were made against.
+    // The default fills in rows created before the column existed.
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -55,14 +67,14 @@ public class Page {
         updatedAt = LocalDateTime.now();
     }
 
+    // Page owns the page_tags join table, so only this side is updated:
+    // touching tag.getPages() would load every page of the tag
     public void addTag(Tag tag) {
         this.tags.add(tag);
-        tag.getPages().add(this);
     }
 
     public void removeTag(Tag tag) {
         this.tags.remove(tag);
-        tag.getPages().remove(this);
     }
 
 
@@ -0,0 +1,28 @@
+package com.personalwiki.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The markdown body of a page, stored apart from {@link Page} so that listings, tag and
+ * type operations never read it. Shares the page's id; loaded only when a page is opened,
+ * searched or exported. Large bodies are stored compressed (see {@link CompressedTextConverter}),
+ * so the column cannot be searched with LIKE.
+ */
+@Entity
+@Table(name = "page_contents")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageContent {
+
+    @Id
+    @Column(name = "page_id")
+    private Long pageId;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "body", columnDefinition = "BLOB")
+    private String content;
+}
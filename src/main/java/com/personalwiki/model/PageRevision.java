@@ -0,0 +1,60 @@
+package com.personalwiki.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * One saved state of a page. {@code data} is either a compressed snapshot of the whole body or
+ * a compressed delta from the previous revision (see {@link com.personalwiki.revision.RevisionCodec}).
+ * {@code baseRevision} is the snapshot a delta chain starts from, so a revision is rebuilt from
+ * the rows {@code baseRevision..revision} alone.
+ */
+@Entity
+@Table(name = "page_revisions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_page_revisions_page_revision", columnNames = {"page_id", "revision"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "data")
+public class PageRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "page_revisions_seq")
+    @SequenceGenerator(name = "page_revisions_seq", sequenceName = "page_revisions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "page_id", nullable = false)
+    private Long pageId;
+
+    // 1, 2, 3... per page
+    @Column(nullable = false)
+    private int revision;
+
+    @Column(name = "base_revision", nullable = false)
+    private int baseRevision;
+
+    @Column(nullable = false)
+    private boolean snapshot;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    // Length of the body in characters, and CRC32 of its UTF-8 bytes to check a rebuilt body
+    @Column(name = "body_length", nullable = false)
+    private int length;
+
+    @Column(nullable = false)
+    private long checksum;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
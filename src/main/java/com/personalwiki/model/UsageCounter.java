@@ -0,0 +1,44 @@
+package com.personalwiki.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Number of pages carrying a tag or a type, kept up to date by the page writes themselves so
+ * that tag clouds and per-type counts are read, not counted. Kept apart from {@link Tag} and
+ * {@link Type} so that bumping a counter does not evict them from the second-level cache.
+ */
+@Entity
+@Table(name = "usage_counters")
+@IdClass(UsageCounter.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageCounter {
+
+    public enum Kind { TAG, TYPE }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Kind kind;
+
+    @Id
+    @Column(name = "ref_id")
+    private Long refId;
+
+    @Column(name = "page_count", nullable = false)
+    private long pageCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Kind kind;
+        private Long refId;
+    }
+}
@@ -0,0 +1,190 @@
+package com.personalwiki.render;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rendered HTML keyed by content hash, bounded by an approximate size in bytes.
+ * <p>
+ * Least recently used entries are evicted first. When a spill directory is configured,
+ * evicted entries are written there (one file per hash) and read back on a later miss,
+ * so a restart or a large working set does not force pages to be rendered again.
+ * The spill directory has its own size bound; the least recently read files go first.
+ * <p>
+ * Keys are content hashes, so an entry never goes stale: edited content simply gets
+ * a new key and the old entry ages out.
+ */
+@Slf4j
+public class RenderCache {
+
+    private static final String SUFFIX = ".html";
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    private final Path spillDir;
+    private final long maxSpillBytes;
+
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    private final Object spillLock = new Object();
+    private final AtomicLong spillBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong spillHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public record Stats(int entries, long bytes, long spillBytes, long hits, long spillHits, long misses) {
+    }
+
+    /** @param spillDir where evicted entries go, or null to keep the cache in memory only */
+    public RenderCache(long maxBytes, Path spillDir, long maxSpillBytes) {
+        this.maxBytes = maxBytes;
+        this.spillDir = spillDir;
+        this.maxSpillBytes = maxSpillBytes;
+        if (spillDir != null) openSpill();
+    }
+
+    public String get(String key) {
+        synchronized (this) {
+            String html = entries.get(key);
+            if (html != null) {
+                hits.incrementAndGet();
+                return html;
+            }
+        }
+
+        String spilled = readSpill(key);
+        if (spilled == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        spillHits.incrementAndGet();
+        put(key, spilled);
+        return spilled;
+    }
+
+    public void put(String key, String html) {
+        List<Map.Entry<String, String>> evicted = new ArrayList<>();
+        synchronized (this) {
+            String previous = entries.put(key, html);
+            if (previous != null) bytes -= weight(previous);
+            bytes += weight(html);
+
+            Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, String> entry = eldest.next();
+                if (entry.getKey().equals(key)) continue;   // never evict what was just added
+                bytes -= weight(entry.getValue());
+                evicted.add(Map.entry(entry.getKey(), entry.getValue()));
+                eldest.remove();
+            }
+        }
+        // Disk writes happen outside the lock so readers are not held up
+        for (Map.Entry<String, String> entry : evicted) {
+            writeSpill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(entries.size(), bytes, spillBytes.get(), hits.get(), spillHits.get(), misses.get());
+        }
+    }
+
+    private static long weight(String html) {
+        return (long) html.length() * 2 + ENTRY_OVERHEAD;
+    }
+
+    // ── Spill ─────────────────────────────────────────────────────────────────
+
+    private void openSpill() {
+        try {
+            Files.createDirectories(spillDir);
+            try (Stream<Path> files = Files.list(spillDir)) {
+                spillBytes.set(files.filter(f -> f.toString().endsWith(SUFFIX)).mapToLong(RenderCache::sizeOf).sum());
+            }
+            trimSpill();
+        } catch (IOException e) {
+            log.warn("Render cache spill directory {} is unusable: {}", spillDir, e.getMessage());
+        }
+    }
+
+    private String readSpill(String key) {
+        if (spillDir == null) return null;
+        Path file = spillDir.resolve(key + SUFFIX);
+        try {
+            String html = Files.readString(file, StandardCharsets.UTF_8);
+            // Reads refresh the timestamp, so trimming drops the least recently used files
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return html;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read rendered page {} from disk: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSpill(String key, String html) {
+        if (spillDir == null) return;
+        Path file = spillDir.resolve(key + SUFFIX);
+        if (Files.exists(file)) return;   // same key, same content
+        try {
+            Path tmp = Files.createTempFile(spillDir, key, ".tmp");
+            Files.writeString(tmp, html, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (spillBytes.addAndGet(sizeOf(file)) > maxSpillBytes) trimSpill();
+        } catch (IOException e) {
+            log.warn("Could not spill rendered page to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void trimSpill() {
+        synchronized (spillLock) {
+            if (spillBytes.get() <= maxSpillBytes) return;
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(spillDir)) {
+                files = listing.filter(f -> f.toString().endsWith(SUFFIX))
+                        .sorted(Comparator.comparing(RenderCache::lastModified))
+                        .toList();
+            } catch (IOException e) {
+                log.warn("Could not trim render cache spill directory {}: {}", spillDir, e.getMessage());
+                return;
+            }
+            // Trim to three quarters of the bound so this does not run on every spill
+            long target = maxSpillBytes / 4 * 3;
+            for (Path file : files) {
+                if (spillBytes.get() <= target) break;
+                long size = sizeOf(file);
+                try {
+                    if (Files.deleteIfExists(file)) spillBytes.addAndGet(-size);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
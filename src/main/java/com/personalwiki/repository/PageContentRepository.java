@@ -0,0 +1,9 @@
+package com.personalwiki.repository;
+
+import com.personalwiki.model.PageContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PageContentRepository extends JpaRepository<PageContent, Long> {
+}
@@ -1,19 +1,32 @@
 package com.personalwiki.repository;
 
+import com.personalwiki.dto.PageSummaryDTO;
 import com.personalwiki.model.Page;
 import com.personalwiki.model.Type;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PageRepository extends JpaRepository<Page, Long> {
 
+    // Flat page rows for streaming: id, title, content, type id/name/color/icon, createdAt, updatedAt.
+    // Scalars only, so nothing accumulates in the persistence context while streaming.
+    String PAGE_ROW = "SELECT p.id, p.title, c.content, t.id, t.name, t.color, t.icon, p.createdAt, p.updatedAt " +
+            "FROM Page p LEFT JOIN PageContent c ON c.pageId = p.id LEFT JOIN p.type t ";
+
     // Force fetch tags with JOIN FETCH
     @Query("SELECT DISTINCT p FROM Page p LEFT JOIN FETCH p.tags LEFT JOIN FETCH p.type")
     List<Page> findAllWithTags();
@@ -28,8 +41,82 @@ public interface PageRepository extends JpaRepository<Page, Long> {
     // Search by title (content)
     List<Page> findByTitleContainingIgnoreCase(String title);
 
-    // Search in the content
-    List<Page> findByContentContainingIgnoreCase(String content);
+    // Summaries, newest first, using keyset pagination on (updatedAt, id).
+    // The Pageable only carries the limit: it must always be page 0.
+    @Query("SELECT new com.personalwiki.dto.PageSummaryDTO(p.id, p.title, t.id, t.name, t.color, t.icon, p.createdAt, p.updatedAt) " +
+            "FROM Page p LEFT JOIN p.type t " +
+            "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<PageSummaryDTO> findSummaries(Pageable limit);
+
+    @Query("SELECT new com.personalwiki.dto.PageSummaryDTO(p.id, p.title, t.id, t.name, t.color, t.icon, p.createdAt, p.updatedAt) " +
+            "FROM Page p LEFT JOIN p.type t " +
+            "WHERE p.updatedAt < :updatedAt OR (p.updatedAt = :updatedAt AND p.id < :id) " +
+            "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<PageSummaryDTO> findSummariesBefore(@Param("updatedAt") LocalDateTime updatedAt,
+                                             @Param("id") Long id,
+                                             Pageable limit);
+
+    // (page id, tag name) pairs, without loading Page or Tag entities
+    @Query("SELECT p.id, t.name FROM Page p JOIN p.tags t WHERE p.id IN :ids")
+    List<Object[]> findTagNamesByPageIdIn(@Param("ids") Collection<Long> ids);
+
+    // Forward-only cursors, to be consumed inside a transaction and closed
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(PAGE_ROW + "ORDER BY p.id")
+    Stream<Object[]> streamAllRows();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(PAGE_ROW + "WHERE t.id = :typeId ORDER BY p.id")
+    Stream<Object[]> streamRowsByTypeId(@Param("typeId") Long typeId);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(PAGE_ROW + "WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%')) ORDER BY p.id")
+    Stream<Object[]> streamRowsByTitleContaining(@Param("title") String title);
+
+    @Query(PAGE_ROW + "WHERE p.id IN :ids ORDER BY p.id")
+    List<Object[]> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // (page id, tag id, tag name) triples for a batch of pages
+    @Query("SELECT p.id, t.id, t.name FROM Page p JOIN p.tags t WHERE p.id IN :ids ORDER BY t.name")
+    List<Object[]> findTagsByPageIdIn(@Param("ids") Collection<Long> ids);
+
+    // Used to rebuild the in-memory indexes in bounded batches
+    @Query("SELECT p.id FROM Page p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT DISTINCT p FROM Page p LEFT JOIN FETCH p.tags LEFT JOIN FETCH p.type WHERE p.id IN :ids")
+    List<Page> findAllWithTagsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Everything the indexes read but the body, for pages whose tags or type changed
+    @Query("SELECT p.id, p.title, t.id, t.name, p.createdAt, p.updatedAt FROM Page p LEFT JOIN p.type t WHERE p.id IN :ids")
+    List<Object[]> findMetadataRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Content only, to verify substring candidates without loading entities
+    @Query("SELECT c.pageId, c.content FROM PageContent c WHERE c.pageId IN :ids")
+    List<Object[]> findContentByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MAX(p.updatedAt) FROM Page p")
+    Optional<LocalDateTime> findMaxUpdatedAt();
+
+    @Query("SELECT p.id FROM Page p JOIN p.tags t WHERE t.id = :tagId")
+    List<Long> findIdsByTagId(@Param("tagId") Long tagId);
+
+    @Query("SELECT p.id FROM Page p JOIN p.tags t WHERE t.id = :tagId AND p.id IN :ids")
+    List<Long> findIdsByTagIdAndIdIn(@Param("tagId") Long tagId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Page p WHERE p.id IN :ids " +
+            "AND p.id NOT IN (SELECT q.id FROM Page q JOIN q.tags t WHERE t.id = :tagId)")
+    List<Long> findIdsWithoutTagByIdIn(@Param("tagId") Long tagId, @Param("ids") Collection<Long> ids);
+
+    // (page id, lower-case title) pairs of the pages whose title matches one of the given lower-case titles
+    @Query("SELECT p.id, LOWER(p.title) FROM Page p WHERE LOWER(p.title) IN :titles ORDER BY p.id")
+    List<Object[]> findIdsByLowerTitleIn(@Param("titles") Collection<String> titles);
+
+    @Query("SELECT p.id FROM Page p WHERE p.type.id = :typeId")
+    List<Long> findIdsByTypeId(@Param("typeId") Long typeId);
 
     @Modifying
     @Query("UPDATE Page p SET p.type = null WHERE p.type.id = :typeId")
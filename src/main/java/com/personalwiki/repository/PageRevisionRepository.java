@@ -0,0 +1,33 @@
+package com.personalwiki.repository;
+
+import com.personalwiki.dto.RevisionSummaryDTO;
+import com.personalwiki.model.PageRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PageRevisionRepository extends JpaRepository<PageRevision, Long> {
+
+    Optional<PageRevision> findTopByPageIdOrderByRevisionDesc(Long pageId);
+
+    Optional<PageRevision> findByPageIdAndRevision(Long pageId, int revision);
+
+    // Metadata only, newest first: the compressed data is never read for a listing
+    @Query("SELECT new com.personalwiki.dto.RevisionSummaryDTO(r.revision, r.title, r.length, r.snapshot, r.createdAt) " +
+            "FROM PageRevision r WHERE r.pageId = :pageId ORDER BY r.revision DESC")
+    List<RevisionSummaryDTO> findSummariesByPageId(@Param("pageId") Long pageId);
+
+    // The rows needed to rebuild a revision: its snapshot and the deltas after it
+    @Query("SELECT r FROM PageRevision r WHERE r.pageId = :pageId AND r.revision BETWEEN :from AND :to ORDER BY r.revision")
+    List<PageRevision> findChain(@Param("pageId") Long pageId, @Param("from") int from, @Param("to") int to);
+
+    @Modifying
+    @Query("DELETE FROM PageRevision r WHERE r.pageId = :pageId")
+    void deleteByPageId(@Param("pageId") Long pageId);
+}
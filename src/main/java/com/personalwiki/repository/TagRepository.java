@@ -2,8 +2,13 @@ package com.personalwiki.repository;
 
 import com.personalwiki.model.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,32 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByNameIgnoreCase(String name);
 
     boolean existsByNameIgnoreCase(String name);
+
+    // Names are stored normalized (lowercase, trimmed), so an exact IN match is enough
+    List<Tag> findByNameIn(Collection<String> names);
+
+    // ── Set-based changes to page_tags: no Page entity is loaded ──────────────
+
+    // Gives the target tag to every page of the source that does not have it yet
+    @Modifying
+    @Query(value = "INSERT INTO page_tags (page_id, tag_id) SELECT pt.page_id, :targetId FROM page_tags pt " +
+            "WHERE pt.tag_id = :sourceId " +
+            "AND NOT EXISTS (SELECT 1 FROM page_tags t WHERE t.page_id = pt.page_id AND t.tag_id = :targetId)",
+            nativeQuery = true)
+    int copyPageLinks(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
+
+    @Modifying
+    @Query(value = "DELETE FROM page_tags WHERE tag_id = :tagId", nativeQuery = true)
+    int deletePageLinks(@Param("tagId") Long tagId);
+
+    @Modifying
+    @Query(value = "INSERT INTO page_tags (page_id, tag_id) SELECT p.id, :tagId FROM pages p " +
+            "WHERE p.id IN (:pageIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM page_tags t WHERE t.page_id = p.id AND t.tag_id = :tagId)",
+            nativeQuery = true)
+    int addToPages(@Param("tagId") Long tagId, @Param("pageIds") Collection<Long> pageIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM page_tags WHERE tag_id = :tagId AND page_id IN (:pageIds)", nativeQuery = true)
+    int removeFromPages(@Param("tagId") Long tagId, @Param("pageIds") Collection<Long> pageIds);
 }
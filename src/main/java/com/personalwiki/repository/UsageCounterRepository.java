@@ -0,0 +1,35 @@
+package com.personalwiki.repository;
+
+import com.personalwiki.model.UsageCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UsageCounterRepository extends JpaRepository<UsageCounter, UsageCounter.Key> {
+
+    // Bulk JPQL updates bypass the persistence context: callers never read a counter they adjusted
+    @Modifying
+    @Query("UPDATE UsageCounter c SET c.pageCount = c.pageCount + :delta WHERE c.kind = :kind AND c.refId IN :ids")
+    int adjust(@Param("kind") UsageCounter.Kind kind, @Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    @Query("SELECT c.refId FROM UsageCounter c WHERE c.kind = :kind AND c.refId IN :ids")
+    List<Long> findExistingIds(@Param("kind") UsageCounter.Kind kind, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM UsageCounter c WHERE c.kind = :kind AND c.refId = :id")
+    void deleteCounter(@Param("kind") UsageCounter.Kind kind, @Param("id") Long id);
+
+    // True counts, for the reconciliation: [tag id, page count]
+    @Query("SELECT t.id, COUNT(p) FROM Page p JOIN p.tags t GROUP BY t.id")
+    List<Object[]> countPagesByTag();
+
+    // [type id, page count]
+    @Query("SELECT p.type.id, COUNT(p) FROM Page p WHERE p.type IS NOT NULL GROUP BY p.type.id")
+    List<Object[]> countPagesByType();
+}
@@ -0,0 +1,152 @@
+package com.personalwiki.revision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line-based diff (Myers' O(ND) algorithm).
+ * <p>
+ * Common leading and trailing lines are stripped first, so the cost follows the size of the
+ * edit rather than the size of the page. Past {@link #MAX_EDIT_DISTANCE} differing lines the
+ * remaining middle is reported as one deletion and one insertion: still a correct diff, only
+ * not a minimal one, and the search stays bounded in time and memory.
+ */
+public final class LineDiff {
+
+    static final int MAX_EDIT_DISTANCE = 2000;
+
+    public enum Op { EQUAL, DELETE, INSERT }
+
+    /**
+     * {@code length} lines starting at {@code fromLine} in the old text and/or {@code toLine}
+     * in the new one: both for EQUAL, old only for DELETE, new only for INSERT.
+     */
+    public record Chunk(Op op, int fromLine, int toLine, int length) {
+    }
+
+    private LineDiff() {
+    }
+
+    /** Splits text into lines, each keeping its line terminator, so that joining them gives the text back. */
+    public static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.isEmpty()) return lines;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) lines.add(text.substring(start));
+        return lines;
+    }
+
+    public static List<Chunk> diff(List<String> from, List<String> to) {
+        int prefix = 0;
+        int max = Math.min(from.size(), to.size());
+        while (prefix < max && from.get(prefix).equals(to.get(prefix))) prefix++;
+        int suffix = 0;
+        while (suffix < max - prefix
+                && from.get(from.size() - 1 - suffix).equals(to.get(to.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        Builder builder = new Builder();
+        builder.add(Op.EQUAL, prefix);
+        middle(from.subList(prefix, from.size() - suffix), to.subList(prefix, to.size() - suffix), builder);
+        builder.add(Op.EQUAL, suffix);
+        return builder.chunks;
+    }
+
+    // ── Myers ─────────────────────────────────────────────────────────────────
+
+    private static void middle(List<String> a, List<String> b, Builder builder) {
+        int n = a.size();
+        int m = b.size();
+        if (n == 0 || m == 0) {
+            builder.add(Op.DELETE, n);
+            builder.add(Op.INSERT, m);
+            return;
+        }
+
+        int limit = Math.min(n + m, MAX_EDIT_DISTANCE);
+        int offset = limit + 1;
+        int[] v = new int[2 * limit + 3];
+        // trace.get(d) holds v[-d..d] as it was before step d
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= limit; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    backtrack(trace, d, n, m, builder);
+                    return;
+                }
+            }
+        }
+
+        // Too many differences for a minimal script
+        builder.add(Op.DELETE, n);
+        builder.add(Op.INSERT, m);
+    }
+
+    private static void backtrack(List<int[]> trace, int distance, int n, int m, Builder builder) {
+        // Walked from the end, so the operations are collected in reverse
+        List<Op> reversed = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            boolean down = k == -d || (k != d && at(previous, d, k - 1) < at(previous, d, k + 1));
+            int previousK = down ? k + 1 : k - 1;
+            int previousX = at(previous, d, previousK);
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                reversed.add(Op.EQUAL);
+                x--;
+                y--;
+            }
+            reversed.add(down ? Op.INSERT : Op.DELETE);
+            x = previousX;
+            y = previousY;
+        }
+        for (; x > 0; x--) reversed.add(Op.EQUAL);
+
+        for (int i = reversed.size() - 1; i >= 0; i--) builder.add(reversed.get(i), 1);
+    }
+
+    private static int at(int[] slice, int d, int k) {
+        return slice[k + d];
+    }
+
+    /** Merges consecutive operations of the same kind into chunks and tracks line numbers. */
+    private static class Builder {
+        final List<Chunk> chunks = new ArrayList<>();
+        int fromLine;
+        int toLine;
+
+        void add(Op op, int length) {
+            if (length == 0) return;
+            Chunk last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (last != null && last.op() == op) {
+                chunks.set(chunks.size() - 1, new Chunk(op, last.fromLine(), last.toLine(), last.length() + length));
+            } else {
+                chunks.add(new Chunk(op, fromLine, toLine, length));
+            }
+            if (op != Op.INSERT) fromLine += length;
+            if (op != Op.DELETE) toLine += length;
+        }
+    }
+}
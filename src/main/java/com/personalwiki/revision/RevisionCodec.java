@@ -0,0 +1,112 @@
+package com.personalwiki.revision;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.*;
+
+/**
+ * Binary forms of a page revision, both deflate-compressed.
+ * <ul>
+ *   <li>a <b>snapshot</b> is the whole text;</li>
+ *   <li>a <b>delta</b> turns the previous revision into this one, as a list of line operations:
+ *       copy {@code n} lines, skip {@code n} lines, or insert the given lines. Unchanged lines are
+ *       only counted, so a delta grows with the edit, not with the page.</li>
+ * </ul>
+ */
+public final class RevisionCodec {
+
+    private static final byte COPY = 0;
+    private static final byte SKIP = 1;
+    private static final byte INSERT = 2;
+
+    private RevisionCodec() {
+    }
+
+    public static byte[] snapshot(String text) {
+        return deflate(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String restore(byte[] snapshot) {
+        return new String(inflate(snapshot), StandardCharsets.UTF_8);
+    }
+
+    public static byte[] delta(String from, String to) {
+        List<String> fromLines = LineDiff.lines(from);
+        List<String> toLines = LineDiff.lines(to);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (LineDiff.Chunk chunk : LineDiff.diff(fromLines, toLines)) {
+                switch (chunk.op()) {
+                    case EQUAL -> {
+                        out.writeByte(COPY);
+                        out.writeInt(chunk.length());
+                    }
+                    case DELETE -> {
+                        out.writeByte(SKIP);
+                        out.writeInt(chunk.length());
+                    }
+                    case INSERT -> {
+                        byte[] inserted = String.join("", toLines.subList(chunk.toLine(), chunk.toLine() + chunk.length()))
+                                .getBytes(StandardCharsets.UTF_8);
+                        out.writeByte(INSERT);
+                        out.writeInt(inserted.length);
+                        out.write(inserted);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deflate(bytes.toByteArray());
+    }
+
+    public static String apply(String from, byte[] delta) {
+        List<String> fromLines = LineDiff.lines(from);
+        StringBuilder text = new StringBuilder(from.length());
+        int line = 0;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(delta)))) {
+            int op;
+            while ((op = in.read()) != -1) {
+                int length = in.readInt();
+                switch (op) {
+                    case COPY -> {
+                        if (line + length > fromLines.size()) throw new IllegalStateException("Delta does not match its base revision");
+                        for (int i = 0; i < length; i++) text.append(fromLines.get(line++));
+                    }
+                    case SKIP -> line += length;
+                    case INSERT -> text.append(new String(in.readNBytes(length), StandardCharsets.UTF_8));
+                    default -> throw new IllegalStateException("Unknown delta operation: " + op);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    // ── Compression ───────────────────────────────────────────────────────────
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+                stream.write(data);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
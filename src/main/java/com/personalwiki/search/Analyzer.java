@@ -0,0 +1,59 @@
+package com.personalwiki.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lowercase, accent-folded terms.
+ * A term is a run of letters or digits; everything else is a separator.
+ */
+public final class Analyzer {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private Analyzer() {
+    }
+
+    /** A term with its position in the token stream and its character span in the source text. */
+    public record Token(String term, int position, int start, int end) {
+    }
+
+    public static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) return tokens;
+
+        int position = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    tokens.add(new Token(normalize(text.substring(start, i)), position, start, i));
+                }
+                position++;
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> terms(String text) {
+        return tokenize(text).stream().map(Token::term).toList();
+    }
+
+    /** Lowercases and strips diacritics so that "Éte" and "ete" match. */
+    public static String normalize(String term) {
+        String lower = term.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,141 @@
+package com.personalwiki.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One {@link PageIdSet} per tag and per type.
+ * Filters are answered with bitmap AND / OR / AND-NOT, and facet counts with
+ * intersection cardinalities, so neither touches the database.
+ */
+public class FacetIndex {
+
+    private final Map<Long, PageIdSet> byTag = new HashMap<>();
+    private final Map<Long, PageIdSet> byType = new HashMap<>();
+    private final PageIdSet all = new PageIdSet();
+
+    // What each page was filed under, to undo it on update or delete
+    private final Map<Integer, Facets> facetsByPage = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Facets(Long typeId, List<Long> tagIds) {
+    }
+
+    /**
+     * Tags in {@code allTags} must all be present, at least one of {@code anyTags} must be
+     * present when it is not empty, and none of {@code notTags}. Types work the same way
+     * with {@code types} meaning "any of".
+     */
+    public record Filter(Collection<Long> allTags, Collection<Long> anyTags, Collection<Long> notTags,
+                         Collection<Long> types, Collection<Long> notTypes) {
+    }
+
+    public record Result(PageIdSet pages, Map<Long, Integer> tagCounts, Map<Long, Integer> typeCounts) {
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    public void index(PageDocument doc) {
+        int docId = Math.toIntExact(doc.getId());
+        Facets facets = new Facets(doc.getTypeId(), List.copyOf(doc.getTagIds()));
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            all.add(docId);
+            if (facets.typeId() != null) {
+                byType.computeIfAbsent(facets.typeId(), k -> new PageIdSet()).add(docId);
+            }
+            for (Long tagId : facets.tagIds()) {
+                byTag.computeIfAbsent(tagId, k -> new PageIdSet()).add(docId);
+            }
+            facetsByPage.put(docId, facets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long pageId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(pageId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            byTag.clear();
+            byType.clear();
+            all.clear();
+            facetsByPage.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(int docId) {
+        Facets old = facetsByPage.remove(docId);
+        if (old == null) return;
+        all.remove(docId);
+        if (old.typeId() != null) removeFrom(byType, old.typeId(), docId);
+        for (Long tagId : old.tagIds()) removeFrom(byTag, tagId, docId);
+    }
+
+    private static void removeFrom(Map<Long, PageIdSet> sets, Long key, int docId) {
+        PageIdSet set = sets.get(key);
+        if (set != null && set.remove(docId) && set.isEmpty()) sets.remove(key);
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    public Result filter(Filter filter) {
+        lock.readLock().lock();
+        try {
+            PageIdSet result = all.copy();
+
+            for (Long tagId : filter.allTags()) {
+                result = result.and(byTag.getOrDefault(tagId, new PageIdSet()));
+            }
+            if (!filter.anyTags().isEmpty()) {
+                result = result.and(union(byTag, filter.anyTags()));
+            }
+            if (!filter.notTags().isEmpty()) {
+                result = result.andNot(union(byTag, filter.notTags()));
+            }
+            if (!filter.types().isEmpty()) {
+                result = result.and(union(byType, filter.types()));
+            }
+            if (!filter.notTypes().isEmpty()) {
+                result = result.andNot(union(byType, filter.notTypes()));
+            }
+
+            return new Result(result, counts(byTag, result), counts(byType, result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static PageIdSet union(Map<Long, PageIdSet> sets, Collection<Long> keys) {
+        PageIdSet result = new PageIdSet();
+        for (Long key : keys) {
+            PageIdSet set = sets.get(key);
+            if (set != null) result = result.or(set);
+        }
+        return result;
+    }
+
+    /** How many of {@code pages} carry each tag or type; zero counts are left out. */
+    private static Map<Long, Integer> counts(Map<Long, PageIdSet> sets, PageIdSet pages) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (pages.isEmpty()) return counts;
+        for (Map.Entry<Long, PageIdSet> e : sets.entrySet()) {
+            int count = pages.andCardinality(e.getValue());
+            if (count > 0) counts.put(e.getKey(), count);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,680 @@
+package com.personalwiki.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/**
+ * Inverted index over title, type name, tags and content, ranked with BM25.
+ * <p>
+ * Each term maps to a posting list sorted by page id. A posting keeps the
+ * field-weighted term frequency and the term positions, so phrase queries can
+ * be verified without going back to the database. Fields are laid out one after
+ * the other in a single position space, separated by a gap so that a phrase
+ * never matches across two fields. Content occurrences also keep their character
+ * offset, which is all that is needed to cut highlighted snippets.
+ */
+public class FullTextIndex {
+
+    private static final int FORMAT_VERSION = 2;
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float TAG_WEIGHT = 2.0f;
+    static final float TYPE_WEIGHT = 1.5f;
+    static final float CONTENT_WEIGHT = 1.0f;
+
+    private static final int FIELD_GAP = 100;
+
+    // Score multiplier of a term matched with 0, 1 or 2 typos, within a tier (see search)
+    private static final float[] FUZZY_WEIGHTS = {1.0f, 0.5f, 0.25f};
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, DocInfo> docs = new HashMap<>();
+    private final FuzzyTermIndex dictionary = new FuzzyTermIndex();
+    private double totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Per-page data kept alongside the postings, enough to render a hit without a query. */
+    static final class DocInfo {
+        final String title;
+        final Long typeId;
+        final String typeName;
+        final List<String> tags;
+        final float length;
+        final String[] terms;
+        final long updatedAt;
+
+        DocInfo(String title, Long typeId, String typeName, List<String> tags,
+                float length, String[] terms, long updatedAt) {
+            this.title = title;
+            this.typeId = typeId;
+            this.typeName = typeName;
+            this.tags = tags;
+            this.length = length;
+            this.terms = terms;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    public record Hit(long pageId, String title, Long typeId, String typeName, List<String> tags, float score) {
+    }
+
+    /** One page of hits, plus every index term that contributed to a match (fuzzy variants included). */
+    public record Result(int total, List<Hit> hits, Set<String> terms) {
+        static Result empty() {
+            return new Result(0, List.of(), Set.of());
+        }
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    public void index(PageDocument doc) {
+        int docId = Math.toIntExact(doc.getId());
+        Map<String, TermStats> stats = new HashMap<>();
+        float length = 0;
+        int base = 0;
+
+        base = addField(stats, doc.getTitle(), base, TITLE_WEIGHT, false);
+        base = addField(stats, doc.getTypeName(), base, TYPE_WEIGHT, false);
+        for (String tag : doc.getTagNames()) {
+            base = addField(stats, tag, base, TAG_WEIGHT, false);
+        }
+        addField(stats, doc.getContent(), base, CONTENT_WEIGHT, true);
+
+        for (TermStats s : stats.values()) length += s.freq;
+
+        long updatedAt = doc.getUpdatedAt() != null
+                ? doc.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+        DocInfo info = new DocInfo(doc.getTitle(), doc.getTypeId(), doc.getTypeName(),
+                List.copyOf(doc.getTagNames()), length, stats.keySet().toArray(new String[0]), updatedAt);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            for (Map.Entry<String, TermStats> e : stats.entrySet()) {
+                PostingList list = postings.get(e.getKey());
+                if (list == null) {
+                    list = new PostingList();
+                    postings.put(e.getKey(), list);
+                    dictionary.add(e.getKey());
+                }
+                list.put(docId, e.getValue().freq, e.getValue().positions(), e.getValue().offsets());
+            }
+            docs.put(docId, info);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long pageId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(pageId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            dictionary.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(int docId) {
+        DocInfo old = docs.remove(docId);
+        if (old == null) return;
+        totalLength -= old.length;
+        for (String term : old.terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(docId) && list.size == 0) {
+                postings.remove(term);
+                dictionary.remove(term);
+            }
+        }
+    }
+
+    private static int addField(Map<String, TermStats> stats, String text, int base, float weight,
+                                boolean keepOffsets) {
+        if (text == null || text.isEmpty()) return base;
+        int last = -1;
+        for (Analyzer.Token token : Analyzer.tokenize(text)) {
+            stats.computeIfAbsent(token.term(), k -> new TermStats())
+                    .add(base + token.position(), weight, keepOffsets ? token.start() : -1);
+            last = token.position();
+        }
+        return base + last + 1 + FIELD_GAP;
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Order-independent checksum of the type and tag names of every indexed page, to compare
+     * with {@link #typeHash} and {@link #tagHash} summed over the database. Renames, merges and
+     * retagging change these without moving {@code updatedAt}.
+     */
+    public long metadataChecksum() {
+        lock.readLock().lock();
+        try {
+            long sum = 0;
+            for (Map.Entry<Integer, DocInfo> e : docs.entrySet()) {
+                DocInfo info = e.getValue();
+                sum += typeHash(e.getKey(), info.typeId, info.typeName);
+                for (String tag : info.tags) sum += tagHash(e.getKey(), tag);
+            }
+            return sum;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Contribution of a page's type to {@link #metadataChecksum()}; both null when it has none. */
+    public static long typeHash(long pageId, Long typeId, String typeName) {
+        return mix(pageId * 31 + Objects.hashCode(typeId) * 17L + Objects.hashCode(typeName));
+    }
+
+    /** Contribution of one tag of a page to {@link #metadataChecksum()}. */
+    public static long tagHash(long pageId, String tagName) {
+        return mix(~pageId * 31 + tagName.hashCode());
+    }
+
+    // SplitMix64 finalizer: sums of mixed values do not cancel out the way sums of raw hashes can
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Latest {@code updatedAt} (epoch millis, UTC) of any indexed page, or 0 when empty. */
+    public long maxUpdatedAt() {
+        lock.readLock().lock();
+        try {
+            long max = 0;
+            for (DocInfo info : docs.values()) max = Math.max(max, info.updatedAt);
+            return max;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(SearchQuery query, int offset, int limit) {
+        return search(query, offset, limit, false);
+    }
+
+    /**
+     * Runs the query and returns one page of hits, best first.
+     * Only the requested window is kept sorted, the rest of the matches are merely counted.
+     * With {@code fuzzy}, single terms also match dictionary terms within a few typos
+     * (see {@link FuzzyTermIndex#autoEdits}). A near match is scored with the IDF of the term
+     * typed, not its own, so a rare misspelling gets no bonus; and hits are ranked by their
+     * total number of typos first, so exact matches always come before near ones.
+     * Phrases and exclusions always match exactly.
+     */
+    public Result search(SearchQuery query, int offset, int limit, boolean fuzzy) {
+        if (query.isEmpty()) return Result.empty();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> scores = null;
+            // Typos per page, summed over the groups; only tracked in fuzzy mode
+            Map<Integer, Integer> distances = fuzzy ? new HashMap<>() : null;
+            Set<String> matchedTerms = new HashSet<>();
+            List<List<SearchQuery.Clause>> groups = new ArrayList<>(query.getGroups());
+            // Most selective group first keeps the intermediate maps small
+            if (!fuzzy) groups.sort(Comparator.comparingInt(this::estimateSize));
+
+            for (List<SearchQuery.Clause> group : groups) {
+                Map<Integer, Integer> groupDistances = fuzzy ? new HashMap<>() : null;
+                Map<Integer, Float> groupScores = scoreGroup(group, scores, fuzzy, matchedTerms, groupDistances);
+                if (scores == null) {
+                    scores = groupScores;
+                    if (fuzzy) distances.putAll(groupDistances);
+                } else {
+                    Map<Integer, Float> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Float> e : groupScores.entrySet()) {
+                        Float previous = scores.get(e.getKey());
+                        if (previous != null) merged.put(e.getKey(), previous + e.getValue());
+                    }
+                    scores = merged;
+                    if (fuzzy) {
+                        Map<Integer, Integer> kept = new HashMap<>();
+                        for (Integer docId : merged.keySet()) {
+                            kept.put(docId, distances.getOrDefault(docId, 0) + groupDistances.getOrDefault(docId, 0));
+                        }
+                        distances = kept;
+                    }
+                }
+                if (scores.isEmpty()) return Result.empty();
+            }
+
+            for (SearchQuery.Clause clause : query.getExcluded()) {
+                scores.keySet().removeAll(matchingDocs(clause, scores.keySet()));
+            }
+
+            return topHits(scores, distances, offset, limit, matchedTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int estimateSize(List<SearchQuery.Clause> group) {
+        int size = 0;
+        for (SearchQuery.Clause clause : group) {
+            int smallest = Integer.MAX_VALUE;
+            for (String term : clause.terms()) {
+                PostingList list = postings.get(term);
+                smallest = Math.min(smallest, list == null ? 0 : list.size);
+            }
+            size += smallest;
+        }
+        return size;
+    }
+
+    /**
+     * Union of the clauses of a group, restricted to {@code candidates} when given.
+     * In fuzzy mode, {@code distances} receives the fewest typos each page was matched with.
+     */
+    private Map<Integer, Float> scoreGroup(List<SearchQuery.Clause> group, Map<Integer, Float> candidates,
+                                           boolean fuzzy, Set<String> matchedTerms,
+                                           Map<Integer, Integer> distances) {
+        Map<Integer, Float> result = new HashMap<>();
+        float avgLength = docs.isEmpty() ? 1f : (float) (totalLength / docs.size());
+
+        for (SearchQuery.Clause clause : group) {
+            if (clause.isPhrase()) {
+                Set<Integer> matches = matchingDocs(clause, candidates != null ? candidates.keySet() : null);
+                for (String term : clause.terms()) {
+                    scoreTerm(term, 1f, candidates, matches, avgLength, result, Float::sum);
+                    matchedTerms.add(term);
+                }
+                if (fuzzy) matches.forEach(docId -> distances.put(docId, 0));
+            } else if (fuzzy) {
+                // A page matching several spellings only counts its closest one, and its best score at that distance
+                Map<Integer, Float> best = new HashMap<>();
+                Map<Integer, Integer> bestDistance = new HashMap<>();
+                String term = clause.terms().get(0);
+                PostingList typed = postings.get(term);
+                float idf = idf(typed == null ? 0 : typed.size);
+                // Closest spellings come first
+                for (FuzzyTermIndex.Match match : dictionary.lookup(term, FuzzyTermIndex.autoEdits(term))) {
+                    Map<Integer, Float> scores = new HashMap<>();
+                    scoreTerm(match.term(), idf, FUZZY_WEIGHTS[match.distance()], candidates, null,
+                            avgLength, scores, Float::sum);
+                    scores.forEach((docId, score) -> {
+                        Integer known = bestDistance.putIfAbsent(docId, match.distance());
+                        if (known == null) best.put(docId, score);
+                        else if (known == match.distance()) best.merge(docId, score, Math::max);
+                    });
+                    matchedTerms.add(match.term());
+                }
+                best.forEach((docId, score) -> result.merge(docId, score, Float::sum));
+                bestDistance.forEach((docId, distance) -> distances.merge(docId, distance, Math::min));
+            } else {
+                scoreTerm(clause.terms().get(0), 1f, candidates, null, avgLength, result, Float::sum);
+                matchedTerms.add(clause.terms().get(0));
+            }
+        }
+        return result;
+    }
+
+    private void scoreTerm(String term, float weight, Map<Integer, Float> candidates, Set<Integer> matches,
+                           float avgLength, Map<Integer, Float> out,
+                           BiFunction<Float, Float, Float> merge) {
+        PostingList list = postings.get(term);
+        if (list == null) return;
+        scoreTerm(term, idf(list.size), weight, candidates, matches, avgLength, out, merge);
+    }
+
+    /** Same, with the given IDF instead of the term's own. */
+    private void scoreTerm(String term, float idf, float weight, Map<Integer, Float> candidates, Set<Integer> matches,
+                           float avgLength, Map<Integer, Float> out,
+                           BiFunction<Float, Float, Float> merge) {
+        PostingList list = postings.get(term);
+        if (list == null) return;
+        for (int i = 0; i < list.size; i++) {
+            int docId = list.docs[i];
+            if (candidates != null && !candidates.containsKey(docId)) continue;
+            if (matches != null && !matches.contains(docId)) continue;
+            float score = weight * bm25(idf, list.freqs[i], docs.get(docId).length, avgLength);
+            out.merge(docId, score, merge);
+        }
+    }
+
+    /** Pages matching a term or a phrase, optionally restricted to {@code within}. */
+    private Set<Integer> matchingDocs(SearchQuery.Clause clause, Set<Integer> within) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String term : clause.terms()) {
+            PostingList list = postings.get(term);
+            if (list == null) return Set.of();
+            lists.add(list);
+        }
+
+        PostingList first = lists.get(0);
+        Set<Integer> result = new HashSet<>();
+        outer:
+        for (int i = 0; i < first.size; i++) {
+            int docId = first.docs[i];
+            if (within != null && !within.contains(docId)) continue;
+            int[][] positions = new int[lists.size()][];
+            positions[0] = first.positions[i];
+            for (int t = 1; t < lists.size(); t++) {
+                int idx = lists.get(t).indexOf(docId);
+                if (idx < 0) continue outer;
+                positions[t] = lists.get(t).positions[idx];
+            }
+            if (!clause.isPhrase() || containsPhrase(positions)) result.add(docId);
+        }
+        return result;
+    }
+
+    private static boolean containsPhrase(int[][] positions) {
+        for (int start : positions[0]) {
+            boolean match = true;
+            for (int t = 1; t < positions.length && match; t++) {
+                match = Arrays.binarySearch(positions[t], start + t) >= 0;
+            }
+            if (match) return true;
+        }
+        return false;
+    }
+
+    private float idf(int docFreq) {
+        int n = docs.size();
+        return (float) Math.log(1 + (n - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    private static float bm25(float idf, float tf, float length, float avgLength) {
+        return idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / avgLength));
+    }
+
+    /** The hits of the window, fewest typos first when {@code distances} is given, then best score. */
+    private Result topHits(Map<Integer, Float> scores, Map<Integer, Integer> distances, int offset, int limit,
+                           Set<String> terms) {
+        Comparator<Map.Entry<Integer, Float>> byScore = Map.Entry.<Integer, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        Comparator<Map.Entry<Integer, Float>> order = distances == null ? byScore
+                : Comparator.<Map.Entry<Integer, Float>>comparingInt(e -> distances.getOrDefault(e.getKey(), 0))
+                        .thenComparing(byScore);
+        int window = offset + limit;
+        if (window <= 0 || offset >= scores.size()) return new Result(scores.size(), List.of(), terms);
+
+        // Min-heap on the ranking order: the head is the weakest of the current top entries
+        PriorityQueue<Map.Entry<Integer, Float>> heap = new PriorityQueue<>(order.reversed());
+        for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > window) heap.poll();
+        }
+        List<Map.Entry<Integer, Float>> top = new ArrayList<>(heap);
+        top.sort(order);
+
+        List<Hit> hits = new ArrayList<>();
+        for (int i = offset; i < top.size(); i++) {
+            Map.Entry<Integer, Float> e = top.get(i);
+            DocInfo info = docs.get(e.getKey());
+            hits.add(new Hit(e.getKey(), info.title, info.typeId, info.typeName, info.tags, e.getValue()));
+        }
+        return new Result(scores.size(), hits, terms);
+    }
+
+    /**
+     * Character offsets, in the page content, of every occurrence of the given terms.
+     * Each offset is the start of a run of letters or digits, so the caller finds its end
+     * without re-analysing the text.
+     */
+    public int[] contentOffsets(long pageId, Collection<String> terms) {
+        int docId = Math.toIntExact(pageId);
+        lock.readLock().lock();
+        try {
+            int[] result = new int[0];
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) continue;
+                int idx = list.indexOf(docId);
+                if (idx < 0 || list.offsets[idx] == null) continue;
+                int[] found = list.offsets[idx];
+                int[] merged = Arrays.copyOf(result, result.length + found.length);
+                System.arraycopy(found, 0, merged, result.length, found.length);
+                result = merged;
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Persistence ───────────────────────────────────────────────────────────
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(docs.size());
+            for (Map.Entry<Integer, DocInfo> e : docs.entrySet()) {
+                DocInfo info = e.getValue();
+                out.writeInt(e.getKey());
+                out.writeUTF(info.title != null ? info.title : "");
+                out.writeLong(info.typeId != null ? info.typeId : -1L);
+                out.writeUTF(info.typeName != null ? info.typeName : "");
+                out.writeInt(info.tags.size());
+                for (String tag : info.tags) out.writeUTF(tag);
+                out.writeFloat(info.length);
+                out.writeLong(info.updatedAt);
+                out.writeInt(info.terms.length);
+                for (String term : info.terms) out.writeUTF(term);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> e : postings.entrySet()) {
+                PostingList list = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeInt(list.size);
+                for (int i = 0; i < list.size; i++) {
+                    out.writeInt(list.docs[i]);
+                    out.writeFloat(list.freqs[i]);
+                    writeInts(out, list.positions[i]);
+                    writeInts(out, list.offsets[i] != null ? list.offsets[i] : new int[0]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported index format: " + version);
+        }
+        Map<Integer, DocInfo> loadedDocs = new HashMap<>();
+        Map<String, PostingList> loadedPostings = new HashMap<>();
+        double loadedLength = 0;
+
+        int docCount = in.readInt();
+        for (int d = 0; d < docCount; d++) {
+            int docId = in.readInt();
+            String title = in.readUTF();
+            long typeId = in.readLong();
+            String typeName = in.readUTF();
+            List<String> tags = new ArrayList<>();
+            int tagCount = in.readInt();
+            for (int t = 0; t < tagCount; t++) tags.add(in.readUTF());
+            float length = in.readFloat();
+            long updatedAt = in.readLong();
+            String[] terms = new String[in.readInt()];
+            for (int t = 0; t < terms.length; t++) terms[t] = in.readUTF();
+            loadedDocs.put(docId, new DocInfo(title, typeId >= 0 ? typeId : null,
+                    typeId >= 0 ? typeName : null, List.copyOf(tags), length, terms, updatedAt));
+            loadedLength += length;
+        }
+
+        int termCount = in.readInt();
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int size = in.readInt();
+            PostingList list = new PostingList(size);
+            for (int i = 0; i < size; i++) {
+                int docId = in.readInt();
+                float freq = in.readFloat();
+                int[] pos = readInts(in);
+                int[] offs = readInts(in);
+                list.append(docId, freq, pos, offs.length > 0 ? offs : null);
+            }
+            loadedPostings.put(term, list);
+        }
+
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            docs.putAll(loadedDocs);
+            postings.clear();
+            postings.putAll(loadedPostings);
+            dictionary.clear();
+            loadedPostings.keySet().forEach(dictionary::add);
+            totalLength = loadedLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int v : values) out.writeInt(v);
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    // ── Internal structures ───────────────────────────────────────────────────
+
+    private static final class TermStats {
+        float freq;
+        int[] positions = new int[4];
+        int count;
+        int[] offsets;
+        int offsetCount;
+
+        void add(int position, float weight, int offset) {
+            freq += weight;
+            if (count == positions.length) positions = Arrays.copyOf(positions, count * 2);
+            positions[count++] = position;
+            if (offset >= 0) {
+                if (offsets == null) offsets = new int[4];
+                if (offsetCount == offsets.length) offsets = Arrays.copyOf(offsets, offsetCount * 2);
+                offsets[offsetCount++] = offset;
+            }
+        }
+
+        int[] positions() {
+            return Arrays.copyOf(positions, count);
+        }
+
+        int[] offsets() {
+            return offsets == null ? null : Arrays.copyOf(offsets, offsetCount);
+        }
+    }
+
+    /** Parallel arrays sorted by page id. Offsets are null for pages matching outside the content. */
+    private static final class PostingList {
+        int size;
+        int[] docs;
+        float[] freqs;
+        int[][] positions;
+        int[][] offsets;
+
+        PostingList() {
+            this(4);
+        }
+
+        PostingList(int capacity) {
+            docs = new int[Math.max(capacity, 1)];
+            freqs = new float[docs.length];
+            positions = new int[docs.length][];
+            offsets = new int[docs.length][];
+        }
+
+        int indexOf(int docId) {
+            return Arrays.binarySearch(docs, 0, size, docId);
+        }
+
+        void append(int docId, float freq, int[] pos, int[] offs) {
+            ensureCapacity();
+            docs[size] = docId;
+            freqs[size] = freq;
+            positions[size] = pos;
+            offsets[size] = offs;
+            size++;
+        }
+
+        void put(int docId, float freq, int[] pos, int[] offs) {
+            int idx = indexOf(docId);
+            if (idx >= 0) {
+                freqs[idx] = freq;
+                positions[idx] = pos;
+                offsets[idx] = offs;
+                return;
+            }
+            int insert = -idx - 1;
+            ensureCapacity();
+            System.arraycopy(docs, insert, docs, insert + 1, size - insert);
+            System.arraycopy(freqs, insert, freqs, insert + 1, size - insert);
+            System.arraycopy(positions, insert, positions, insert + 1, size - insert);
+            System.arraycopy(offsets, insert, offsets, insert + 1, size - insert);
+            docs[insert] = docId;
+            freqs[insert] = freq;
+            positions[insert] = pos;
+            offsets[insert] = offs;
+            size++;
+        }
+
+        boolean remove(int docId) {
+            int idx = indexOf(docId);
+            if (idx < 0) return false;
+            int tail = size - idx - 1;
+            System.arraycopy(docs, idx + 1, docs, idx, tail);
+            System.arraycopy(freqs, idx + 1, freqs, idx, tail);
+            System.arraycopy(positions, idx + 1, positions, idx, tail);
+            System.arraycopy(offsets, idx + 1, offsets, idx, tail);
+            size--;
+            positions[size] = null;
+            offsets[size] = null;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size < docs.length) return;
+            int capacity = docs.length * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            freqs = Arrays.copyOf(freqs, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+    }
+}
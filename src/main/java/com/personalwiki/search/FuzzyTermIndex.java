@@ -0,0 +1,173 @@
+package com.personalwiki.search;
+
+import java.util.*;
+
+/**
+ * Typo-tolerant lookup in the term dictionary, using the symmetric-delete idea (SymSpell).
+ * <p>
+ * Every term is registered under itself and under each variant obtained by deleting one
+ * character. A query term generates its own deletion variants (up to the requested number
+ * of edits); terms sharing a variant with it are candidates, and only those are checked
+ * with a real edit distance. This finds every term within one edit and most terms within
+ * two, without ever walking the whole dictionary.
+ * <p>
+ * Variants are keyed by hash to keep the table small; collisions are harmless since every
+ * candidate is verified. Not thread-safe: {@link FullTextIndex} guards it with its own lock.
+ */
+final class FuzzyTermIndex {
+
+    public static final int MAX_EDITS = 2;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final Map<Integer, Bucket> variants = new HashMap<>();
+
+    record Match(String term, int distance) {
+    }
+
+    /** Ids of the terms sharing a variant, in an array grown by doubling. */
+    private static final class Bucket {
+        int[] ids = new int[2];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    void add(String term) {
+        if (ids.containsKey(term)) return;
+        int id;
+        if (freeIds.isEmpty()) {
+            id = terms.size();
+            terms.add(term);
+        } else {
+            id = freeIds.pop();
+            terms.set(id, term);
+        }
+        ids.put(term, id);
+        for (int hash : variantHashes(term)) {
+            variants.computeIfAbsent(hash, h -> new Bucket()).add(id);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = ids.remove(term);
+        if (id == null) return;
+        for (int hash : variantHashes(term)) {
+            Bucket bucket = variants.get(hash);
+            if (bucket == null) continue;
+            bucket.remove(id);
+            if (bucket.size == 0) variants.remove(hash);
+        }
+        terms.set(id, null);
+        freeIds.push(id);
+    }
+
+    void clear() {
+        ids.clear();
+        terms.clear();
+        freeIds.clear();
+        variants.clear();
+    }
+
+    /** Dictionary terms within {@code maxEdits} of {@code query}, closest first. */
+    List<Match> lookup(String query, int maxEdits) {
+        int edits = Math.min(maxEdits, MAX_EDITS);
+        Set<String> queryVariants = new HashSet<>();
+        queryVariants.add(query);
+        Set<String> frontier = Set.of(query);
+        for (int e = 0; e < edits; e++) {
+            Set<String> next = new HashSet<>();
+            for (String v : frontier) next.addAll(deletions(v));
+            queryVariants.addAll(next);
+            frontier = next;
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        List<Match> matches = new ArrayList<>();
+        for (String variant : queryVariants) {
+            Bucket bucket = variants.get(variant.hashCode());
+            if (bucket == null) continue;
+            for (int i = 0; i < bucket.size; i++) {
+                int id = bucket.ids[i];
+                if (!seen.add(id)) continue;
+                String term = terms.get(id);
+                if (term == null || Math.abs(term.length() - query.length()) > edits) continue;
+                int distance = distance(query, term, edits);
+                if (distance <= edits) matches.add(new Match(term, distance));
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::term));
+        return matches;
+    }
+
+    /** Edits a term of this length may tolerate: none below 3 characters, two from 6. */
+    static int autoEdits(String term) {
+        int length = term.length();
+        if (length < 3) return 0;
+        return length < 6 ? 1 : 2;
+    }
+
+    private static int[] variantHashes(String term) {
+        Set<String> all = new HashSet<>(deletions(term));
+        all.add(term);
+        int[] hashes = new int[all.size()];
+        int n = 0;
+        for (String v : all) hashes[n++] = v.hashCode();
+        return Arrays.stream(hashes).distinct().toArray();
+    }
+
+    private static Set<String> deletions(String term) {
+        Set<String> result = new HashSet<>();
+        if (term.length() <= 1) return result;
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * giving up early once every cell of a row exceeds {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int[] prevPrev = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+
+        for (int i = 1; i <= n; i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                curr[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = curr;
+            curr = recycled;
+        }
+        return prev[m];
+    }
+}
@@ -0,0 +1,323 @@
+package com.personalwiki.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Page-to-page links, kept as forward ({@code outgoing}) and reverse ({@code incoming})
+ * adjacency so that both "links from" and "what links here" are single lookups.
+ * <p>
+ * Links are stored as declared by each page (ids and titles, see {@link LinkParser}) and
+ * resolved against the pages currently present. A link to a page that does not exist yet,
+ * or to a title nobody has, starts resolving as soon as the target appears; only the pages
+ * that declared it are recomputed, never the whole graph.
+ */
+public class LinkGraph {
+
+    private static final int[] NO_LINKS = new int[0];
+
+    private final PageIdSet pages = new PageIdSet();
+    private final Map<Integer, String> titles = new HashMap<>();
+    private final Map<String, PageIdSet> byTitle = new HashMap<>();
+
+    // What each page declared, and who declared what, so targets can be re-resolved
+    private final Map<Integer, LinkParser.Links> declared = new HashMap<>();
+    private final Map<Long, PageIdSet> declaredById = new HashMap<>();
+    private final Map<String, PageIdSet> declaredByTitle = new HashMap<>();
+
+    // Resolved edges
+    private final Map<Integer, int[]> outgoing = new HashMap<>();
+    private final Map<Integer, PageIdSet> incoming = new HashMap<>();
+    private final PageIdSet linked = new PageIdSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Pages reached within the requested number of hops, and the links between them. */
+    public record Neighborhood(Map<Integer, Integer> distances, List<int[]> edges, boolean truncated) {
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    public void index(PageDocument doc) {
+        int id = Math.toIntExact(doc.getId());
+        String title = LinkParser.normalizeTitle(doc.getTitle());
+        LinkParser.Links links = LinkParser.parse(doc.getContent());
+
+        lock.writeLock().lock();
+        try {
+            boolean isNew = !pages.contains(id);
+            String previousTitle = isNew ? null : LinkParser.normalizeTitle(titles.get(id));
+
+            undeclare(id);
+            declare(id, links);
+
+            pages.add(id);
+            titles.put(id, doc.getTitle());
+            if (previousTitle != null && !previousTitle.equals(title)) {
+                removeFrom(byTitle, previousTitle, id);
+            }
+            byTitle.computeIfAbsent(title, k -> new PageIdSet()).add(id);
+
+            resolve(id);
+
+            // Pages pointing at this one may now resolve differently
+            if (isNew) {
+                PageIdSet sources = declaredById.get((long) id);
+                if (sources != null) sources.forEach(source -> addEdge(source, id));
+            }
+            PageIdSet affected = new PageIdSet();
+            if (isNew || !title.equals(previousTitle)) {
+                addAll(affected, declaredByTitle.get(title));
+                if (previousTitle != null) addAll(affected, declaredByTitle.get(previousTitle));
+            }
+            affected.remove(id);
+            affected.forEach(this::resolve);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long pageId) {
+        int id = Math.toIntExact(pageId);
+        lock.writeLock().lock();
+        try {
+            if (!pages.contains(id)) return;
+            String title = LinkParser.normalizeTitle(titles.remove(id));
+
+            undeclare(id);
+            setOutgoing(id, NO_LINKS);
+            pages.remove(id);
+            removeFrom(byTitle, title, id);
+
+            // Sources linking here lose the edge, or follow the title to another page
+            PageIdSet affected = new PageIdSet();
+            addAll(affected, incoming.remove(id));
+            addAll(affected, declaredByTitle.get(title));
+            linked.remove(id);
+            affected.forEach(this::resolve);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            pages.clear();
+            titles.clear();
+            byTitle.clear();
+            declared.clear();
+            declaredById.clear();
+            declaredByTitle.clear();
+            outgoing.clear();
+            incoming.clear();
+            linked.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    public boolean contains(long pageId) {
+        lock.readLock().lock();
+        try {
+            return pageId >= 0 && pageId <= Integer.MAX_VALUE && pages.contains((int) pageId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String title(int pageId) {
+        lock.readLock().lock();
+        try {
+            return titles.get(pageId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Pages linking to {@code pageId}, in ascending id order. */
+    public int[] backlinks(long pageId) {
+        lock.readLock().lock();
+        try {
+            PageIdSet sources = incoming.get(Math.toIntExact(pageId));
+            return sources != null ? sources.toArray() : NO_LINKS;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Pages {@code pageId} links to, in ascending id order. */
+    public int[] outgoing(long pageId) {
+        lock.readLock().lock();
+        try {
+            return outgoing.getOrDefault(Math.toIntExact(pageId), NO_LINKS).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Pages no other page links to. */
+    public PageIdSet orphans() {
+        lock.readLock().lock();
+        try {
+            return pages.andNot(linked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Breadth-first walk following links in both directions, up to {@code hops} away and
+     * stopping once {@code maxNodes} pages are collected. Edges are the links among the
+     * collected pages.
+     */
+    public Neighborhood neighborhood(long pageId, int hops, int maxNodes) {
+        int start = Math.toIntExact(pageId);
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> distances = new LinkedHashMap<>();
+            if (!pages.contains(start)) return new Neighborhood(distances, List.of(), false);
+
+            distances.put(start, 0);
+            boolean truncated = false;
+            List<Integer> frontier = List.of(start);
+            for (int hop = 1; hop <= hops && !frontier.isEmpty() && !truncated; hop++) {
+                List<Integer> next = new ArrayList<>();
+                for (int node : frontier) {
+                    for (int neighbour : neighbours(node)) {
+                        if (distances.containsKey(neighbour)) continue;
+                        if (distances.size() >= maxNodes) {
+                            truncated = true;
+                            break;
+                        }
+                        distances.put(neighbour, hop);
+                        next.add(neighbour);
+                    }
+                    if (truncated) break;
+                }
+                frontier = next;
+            }
+
+            List<int[]> edges = new ArrayList<>();
+            for (int from : distances.keySet()) {
+                for (int to : outgoing.getOrDefault(from, NO_LINKS)) {
+                    if (distances.containsKey(to)) edges.add(new int[]{from, to});
+                }
+            }
+            return new Neighborhood(distances, edges, truncated);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pages.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Internals (called with the write lock held) ───────────────────────────
+
+    private int[] neighbours(int node) {
+        int[] out = outgoing.getOrDefault(node, NO_LINKS);
+        PageIdSet in = incoming.get(node);
+        if (in == null) return out;
+        PageIdSet all = in.copy();
+        for (int target : out) all.add(target);
+        return all.toArray();
+    }
+
+    private void declare(int id, LinkParser.Links links) {
+        if (links.isEmpty()) return;
+        declared.put(id, links);
+        for (Long target : links.ids()) {
+            declaredById.computeIfAbsent(target, k -> new PageIdSet()).add(id);
+        }
+        for (String target : links.titles()) {
+            declaredByTitle.computeIfAbsent(target, k -> new PageIdSet()).add(id);
+        }
+    }
+
+    private void undeclare(int id) {
+        LinkParser.Links links = declared.remove(id);
+        if (links == null) return;
+        for (Long target : links.ids()) removeFrom(declaredById, target, id);
+        for (String target : links.titles()) removeFrom(declaredByTitle, target, id);
+    }
+
+    /** Recomputes the resolved targets of {@code source} from what it declared. */
+    private void resolve(int source) {
+        LinkParser.Links links = declared.get(source);
+        if (links == null || !pages.contains(source)) {
+            setOutgoing(source, NO_LINKS);
+            return;
+        }
+        PageIdSet targets = new PageIdSet();
+        for (Long target : links.ids()) {
+            if (target <= Integer.MAX_VALUE && pages.contains(target.intValue())) targets.add(target.intValue());
+        }
+        for (String title : links.titles()) {
+            PageIdSet candidates = byTitle.get(title);
+            // Duplicate titles resolve to the oldest page
+            if (candidates != null && !candidates.isEmpty()) targets.add(candidates.toArray()[0]);
+        }
+        targets.remove(source);
+        setOutgoing(source, targets.toArray());
+    }
+
+    private void addEdge(int source, int target) {
+        if (source == target || !pages.contains(source)) return;
+        int[] previous = outgoing.getOrDefault(source, NO_LINKS);
+        int at = Arrays.binarySearch(previous, target);
+        if (at >= 0) return;
+        at = -at - 1;
+        int[] targets = new int[previous.length + 1];
+        System.arraycopy(previous, 0, targets, 0, at);
+        targets[at] = target;
+        System.arraycopy(previous, at, targets, at + 1, previous.length - at);
+        outgoing.put(source, targets);
+        incoming.computeIfAbsent(target, k -> new PageIdSet()).add(source);
+        linked.add(target);
+    }
+
+    private void setOutgoing(int source, int[] targets) {
+        int[] previous = outgoing.getOrDefault(source, NO_LINKS);
+        if (Arrays.equals(previous, targets)) return;
+
+        for (int target : previous) {
+            if (Arrays.binarySearch(targets, target) >= 0) continue;
+            PageIdSet sources = incoming.get(target);
+            if (sources == null) continue;
+            sources.remove(source);
+            if (sources.isEmpty()) {
+                incoming.remove(target);
+                linked.remove(target);
+            }
+        }
+        for (int target : targets) {
+            if (Arrays.binarySearch(previous, target) >= 0) continue;
+            incoming.computeIfAbsent(target, k -> new PageIdSet()).add(source);
+            linked.add(target);
+        }
+
+        if (targets.length == 0) outgoing.remove(source);
+        else outgoing.put(source, targets);
+    }
+
+    private static <K> void removeFrom(Map<K, PageIdSet> map, K key, int id) {
+        PageIdSet set = map.get(key);
+        if (set == null) return;
+        set.remove(id);
+        if (set.isEmpty()) map.remove(key);
+    }
+
+    private static void addAll(PageIdSet target, PageIdSet source) {
+        if (source != null) source.forEach(target::add);
+    }
+}
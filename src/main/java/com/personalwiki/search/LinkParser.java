@@ -0,0 +1,57 @@
+package com.personalwiki.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts links to other pages from markdown content. Two forms are recognised:
+ * <pre>
+ *   [label](/pages/42)  or  [label](http://localhost:8080/pages/42)   by id
+ *   [[Page title]]      or  [[Page title|label]]                        by title
+ * </pre>
+ */
+public final class LinkParser {
+
+    private static final Pattern ID_LINK = Pattern.compile(
+            "\\]\\((?:https?://[^/)\\s]+)?/pages/(\\d+)(?:[/?#][^)]*)?\\)");
+    private static final Pattern TITLE_LINK = Pattern.compile(
+            "\\[\\[([^\\[\\]|\\n]+)(?:\\|[^\\]\\n]*)?\\]\\]");
+
+    private LinkParser() {
+    }
+
+    public record Links(Set<Long> ids, Set<String> titles) {
+        public boolean isEmpty() {
+            return ids.isEmpty() && titles.isEmpty();
+        }
+    }
+
+    public static Links parse(String content) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> titles = new LinkedHashSet<>();
+        if (content == null || content.isEmpty()) return new Links(ids, titles);
+
+        Matcher byId = ID_LINK.matcher(content);
+        while (byId.find()) {
+            try {
+                ids.add(Long.parseLong(byId.group(1)));
+            } catch (NumberFormatException ignored) {
+                // Too many digits to be a page id
+            }
+        }
+        Matcher byTitle = TITLE_LINK.matcher(content);
+        while (byTitle.find()) {
+            String title = normalizeTitle(byTitle.group(1));
+            if (!title.isEmpty()) titles.add(title);
+        }
+        return new Links(ids, titles);
+    }
+
+    /** Titles are matched case-insensitively and ignoring surrounding blanks. */
+    public static String normalizeTitle(String title) {
+        return title == null ? "" : title.trim().toLowerCase(Locale.ROOT);
+    }
+}
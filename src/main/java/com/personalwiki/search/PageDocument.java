@@ -0,0 +1,40 @@
+package com.personalwiki.search;
+
+import com.personalwiki.model.Page;
+import com.personalwiki.model.Tag;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a page as seen by the in-memory indexes.
+ * Built inside the write transaction so listeners never touch a detached entity.
+ */
+@Value
+public class PageDocument {
+    Long id;
+    String title;
+    String content;
+    Long typeId;
+    String typeName;
+    List<Long> tagIds;
+    List<String> tagNames;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+
+    public static PageDocument from(Page page) {
+        List<Tag> tags = List.copyOf(page.getTags());
+        return new PageDocument(
+                page.getId(),
+                page.getTitle(),
+                page.getContent(),
+                page.getType() != null ? page.getType().getId() : null,
+                page.getType() != null ? page.getType().getName() : null,
+                tags.stream().map(Tag::getId).toList(),
+                tags.stream().map(Tag::getName).toList(),
+                page.getCreatedAt(),
+                page.getUpdatedAt()
+        );
+    }
+}
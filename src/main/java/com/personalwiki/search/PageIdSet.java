@@ -0,0 +1,351 @@
+package com.personalwiki.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of page ids, in the spirit of Roaring bitmaps.
+ * <p>
+ * Ids are split on their upper 16 bits into chunks. A sparse chunk stores its
+ * lower 16 bits in a sorted {@code char[]}; once it holds more than
+ * {@value #ARRAY_MAX} values it switches to a 65536-bit {@code long[]} bitmap.
+ * Set operations work chunk by chunk and never materialise boxed ids.
+ * <p>
+ * Not thread-safe: callers guard shared instances with their own lock.
+ */
+public final class PageIdSet {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private int[] keys = new int[0];
+    private Object[] chunks = new Object[0];   // char[] or long[]
+    private int[] cardinalities = new int[0];
+    private int chunkCount;
+
+    public static PageIdSet of(int... ids) {
+        PageIdSet set = new PageIdSet();
+        for (int id : ids) set.add(id);
+        return set;
+    }
+
+    // ── Single values ─────────────────────────────────────────────────────────
+
+    public boolean add(int id) {
+        int key = id >>> 16;
+        char low = (char) id;
+        int idx = findChunk(key);
+        if (idx < 0) {
+            idx = -idx - 1;
+            insertChunk(idx, key, new char[4], 0);
+        }
+        Object chunk = chunks[idx];
+        if (chunk instanceof long[] bits) {
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) != 0) return false;
+            bits[low >>> 6] |= mask;
+            cardinalities[idx]++;
+            return true;
+        }
+        char[] values = (char[]) chunk;
+        int card = cardinalities[idx];
+        int pos = Arrays.binarySearch(values, 0, card, low);
+        if (pos >= 0) return false;
+        pos = -pos - 1;
+        if (card == ARRAY_MAX) {
+            long[] bits = toBitmap(values, card);
+            bits[low >>> 6] |= 1L << low;
+            chunks[idx] = bits;
+        } else {
+            if (card == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, card * 2));
+                chunks[idx] = values;
+            }
+            System.arraycopy(values, pos, values, pos + 1, card - pos);
+            values[pos] = low;
+        }
+        cardinalities[idx]++;
+        return true;
+    }
+
+    public boolean remove(int id) {
+        int idx = findChunk(id >>> 16);
+        if (idx < 0) return false;
+        char low = (char) id;
+        Object chunk = chunks[idx];
+        if (chunk instanceof long[] bits) {
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) return false;
+            bits[low >>> 6] &= ~mask;
+            if (--cardinalities[idx] == ARRAY_MAX) chunks[idx] = toArray(bits, ARRAY_MAX);
+        } else {
+            char[] values = (char[]) chunk;
+            int card = cardinalities[idx];
+            int pos = Arrays.binarySearch(values, 0, card, low);
+            if (pos < 0) return false;
+            System.arraycopy(values, pos + 1, values, pos, card - pos - 1);
+            cardinalities[idx]--;
+        }
+        if (cardinalities[idx] == 0) removeChunk(idx);
+        return true;
+    }
+
+    public boolean contains(int id) {
+        int idx = findChunk(id >>> 16);
+        if (idx < 0) return false;
+        char low = (char) id;
+        Object chunk = chunks[idx];
+        if (chunk instanceof long[] bits) return (bits[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) chunk, 0, cardinalities[idx], low) >= 0;
+    }
+
+    public void clear() {
+        keys = new int[0];
+        chunks = new Object[0];
+        cardinalities = new int[0];
+        chunkCount = 0;
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < chunkCount; i++) total += cardinalities[i];
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    // ── Set operations (return new sets) ──────────────────────────────────────
+
+    public PageIdSet and(PageIdSet other) {
+        PageIdSet result = new PageIdSet();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if (chunks[i] instanceof char[] values) {
+                    result.appendFiltered(keys[i], values, cardinalities[i], other, j, true);
+                } else if (other.chunks[j] instanceof char[] values) {
+                    result.appendFiltered(keys[i], values, other.cardinalities[j], this, i, true);
+                } else {
+                    result.appendBits(keys[i], bits(i), other.bits(j), Op.AND);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public PageIdSet or(PageIdSet other) {
+        PageIdSet result = new PageIdSet();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount || j < other.chunkCount) {
+            if (j >= other.chunkCount || (i < chunkCount && keys[i] < other.keys[j])) {
+                result.appendCopy(keys[i], chunks[i], cardinalities[i]);
+                i++;
+            } else if (i >= chunkCount || keys[i] > other.keys[j]) {
+                result.appendCopy(other.keys[j], other.chunks[j], other.cardinalities[j]);
+                j++;
+            } else {
+                result.appendBits(keys[i], bits(i), other.bits(j), Op.OR);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public PageIdSet andNot(PageIdSet other) {
+        PageIdSet result = new PageIdSet();
+        int j = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            while (j < other.chunkCount && other.keys[j] < keys[i]) j++;
+            if (j < other.chunkCount && other.keys[j] == keys[i]) {
+                if (chunks[i] instanceof char[] values) {
+                    result.appendFiltered(keys[i], values, cardinalities[i], other, j, false);
+                } else {
+                    result.appendBits(keys[i], bits(i), other.bits(j), Op.AND_NOT);
+                }
+            } else {
+                result.appendCopy(keys[i], chunks[i], cardinalities[i]);
+            }
+        }
+        return result;
+    }
+
+    /** Size of the intersection, without building it. */
+    public int andCardinality(PageIdSet other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if (chunks[i] instanceof char[] values) {
+                    for (int k = 0; k < cardinalities[i]; k++) {
+                        if (other.containsLow(j, values[k])) total++;
+                    }
+                } else if (other.chunks[j] instanceof char[] values) {
+                    for (int k = 0; k < other.cardinalities[j]; k++) {
+                        if (containsLow(i, values[k])) total++;
+                    }
+                } else {
+                    long[] a = (long[]) chunks[i];
+                    long[] b = (long[]) other.chunks[j];
+                    for (int w = 0; w < BITMAP_WORDS; w++) total += Long.bitCount(a[w] & b[w]);
+                }
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    public PageIdSet copy() {
+        PageIdSet result = new PageIdSet();
+        for (int i = 0; i < chunkCount; i++) result.appendCopy(keys[i], chunks[i], cardinalities[i]);
+        return result;
+    }
+
+    // ── Iteration ─────────────────────────────────────────────────────────────
+
+    /** Visits every id in ascending order. */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < chunkCount; i++) {
+            int high = keys[i] << 16;
+            if (chunks[i] instanceof long[] bits) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) chunks[i];
+                for (int k = 0; k < cardinalities[i]; k++) action.accept(high | values[k]);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int[] n = {0};
+        forEach(id -> result[n[0]++] = id);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    // ── Internals ─────────────────────────────────────────────────────────────
+
+    private enum Op { AND, OR, AND_NOT }
+
+    private int findChunk(int key) {
+        return Arrays.binarySearch(keys, 0, chunkCount, key);
+    }
+
+    private boolean containsLow(int idx, char low) {
+        Object chunk = chunks[idx];
+        if (chunk instanceof long[] bits) return (bits[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) chunk, 0, cardinalities[idx], low) >= 0;
+    }
+
+    /** The chunk as a bitmap; array chunks are expanded into a temporary one. */
+    private long[] bits(int idx) {
+        Object chunk = chunks[idx];
+        return chunk instanceof long[] bits ? bits : toBitmap((char[]) chunk, cardinalities[idx]);
+    }
+
+    private void appendBits(int key, long[] a, long[] b, Op op) {
+        long[] out = new long[BITMAP_WORDS];
+        int card = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = switch (op) {
+                case AND -> a[w] & b[w];
+                case OR -> a[w] | b[w];
+                case AND_NOT -> a[w] & ~b[w];
+            };
+            out[w] = word;
+            card += Long.bitCount(word);
+        }
+        if (card == 0) return;
+        appendChunk(key, card > ARRAY_MAX ? out : toArray(out, card), card);
+    }
+
+    /** Appends the values whose membership in {@code other}'s chunk equals {@code keep}. */
+    private void appendFiltered(int key, char[] values, int card, PageIdSet other, int otherIdx, boolean keep) {
+        char[] out = new char[card];
+        int n = 0;
+        for (int k = 0; k < card; k++) {
+            if (other.containsLow(otherIdx, values[k]) == keep) out[n++] = values[k];
+        }
+        if (n > 0) appendChunk(key, n == card ? out : Arrays.copyOf(out, n), n);
+    }
+
+    private void appendCopy(int key, Object chunk, int card) {
+        Object copy = chunk instanceof long[] bits ? bits.clone() : Arrays.copyOf((char[]) chunk, card);
+        appendChunk(key, copy, card);
+    }
+
+    private void appendChunk(int key, Object chunk, int card) {
+        insertChunk(chunkCount, key, chunk, card);
+    }
+
+    private void insertChunk(int idx, int key, Object chunk, int card) {
+        if (chunkCount == keys.length) {
+            int capacity = Math.max(4, chunkCount * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, idx, keys, idx + 1, chunkCount - idx);
+        System.arraycopy(chunks, idx, chunks, idx + 1, chunkCount - idx);
+        System.arraycopy(cardinalities, idx, cardinalities, idx + 1, chunkCount - idx);
+        keys[idx] = key;
+        chunks[idx] = chunk;
+        cardinalities[idx] = card;
+        chunkCount++;
+    }
+
+    private void removeChunk(int idx) {
+        int tail = chunkCount - idx - 1;
+        System.arraycopy(keys, idx + 1, keys, idx, tail);
+        System.arraycopy(chunks, idx + 1, chunks, idx, tail);
+        System.arraycopy(cardinalities, idx + 1, cardinalities, idx, tail);
+        chunkCount--;
+        chunks[chunkCount] = null;
+    }
+
+    private static long[] toBitmap(char[] values, int card) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (int k = 0; k < card; k++) bits[values[k] >>> 6] |= 1L << values[k];
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int card) {
+        char[] values = new char[card];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+}
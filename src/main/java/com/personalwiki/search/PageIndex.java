@@ -0,0 +1,43 @@
+package com.personalwiki.search;
+
+/**
+ * An in-memory structure derived from the pages table.
+ * Implementations are kept in sync by {@link com.personalwiki.service.PageIndexService}.
+ */
+public interface PageIndex {
+
+    /** Adds the page, replacing any previous version of it. */
+    void index(PageDocument doc);
+
+    void remove(Long pageId);
+
+    void clear();
+
+    /**
+     * Whether the index must be fed every page at start-up.
+     * Indexes restored from disk return false once the restored copy is known to be fresh.
+     */
+    default boolean needsRebuild() {
+        return true;
+    }
+
+    /** Called once a full rebuild has fed every page. */
+    default void rebuilt() {
+    }
+
+    /**
+     * Whether the index reads the tags or the type of a page. Indexes that do not are left
+     * alone when only those change (tag or type renamed, merged or deleted, bulk retagging).
+     */
+    default boolean readsMetadata() {
+        return true;
+    }
+
+    /**
+     * Whether the index reads the body of a page. Indexes that do not are fed documents
+     * without it ({@link PageDocument#getContent()} is null) when only the metadata changed.
+     */
+    default boolean readsContent() {
+        return true;
+    }
+}
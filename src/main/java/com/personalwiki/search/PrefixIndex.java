@@ -0,0 +1,163 @@
+package com.personalwiki.search;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Prefix lookup over short labels (page titles, tag and type names), ranked by a score.
+ * <p>
+ * Every label is stored once per word start in a sorted map, so "set" finds both
+ * "Setup guide" and "Docker setup". A prefix query is a range scan on that map; the
+ * score lives outside the keys and can change without re-keying.
+ * <p>
+ * A very short prefix can match most of the keys. Past {@link #MAX_SCANNED_KEYS}, the scan
+ * gives way to a walk of all labels in score order, which can stop at the first
+ * {@code limit} labels starting with the prefix. Either way the ranking covers every match.
+ */
+public class PrefixIndex {
+
+    // Beyond this many matching keys, walking the labels by score is cheaper than ranking them all
+    private static final int MAX_SCANNED_KEYS = 20_000;
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Every label, best first, in the order suggestions are returned
+    private final ConcurrentSkipListSet<Suggestion> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    public record Suggestion(long id, String label, double score) {
+    }
+
+    private static final Comparator<Suggestion> ORDER = Comparator.comparingDouble(Suggestion::score).reversed()
+            .thenComparing(Suggestion::label)
+            .thenComparingLong(Suggestion::id);
+
+    private static final class Entry {
+        final String label;
+        final String normalizedLabel;
+        final List<String> keys;
+        volatile double score;
+
+        Entry(String label, List<String> keys, double score) {
+            this.label = label;
+            this.normalizedLabel = Analyzer.normalize(label.trim());
+            this.keys = keys;
+            this.score = score;
+        }
+    }
+
+    public synchronized void put(long id, String label, double score) {
+        Entry old = entries.get(id);
+        if (old != null && old.label.equals(label)) {
+            rescore(id, old, score);
+            return;
+        }
+        removeInternal(id);
+        if (label == null || label.isBlank()) return;
+
+        List<String> entryKeys = new ArrayList<>();
+        for (Analyzer.Token token : Analyzer.tokenize(label)) {
+            String key = Analyzer.normalize(label.substring(token.start())) + SEPARATOR + id;
+            if (keys.putIfAbsent(key, id) == null) entryKeys.add(key);
+        }
+        entries.put(id, new Entry(label, entryKeys, score));
+        ranking.add(new Suggestion(id, label, score));
+    }
+
+    /** Changes the ranking score of an existing label; unknown ids are ignored. */
+    public synchronized void score(long id, double score) {
+        Entry entry = entries.get(id);
+        if (entry != null) rescore(id, entry, score);
+    }
+
+    private void rescore(long id, Entry entry, double score) {
+        if (entry.score == score) return;
+        ranking.remove(new Suggestion(id, entry.label, entry.score));
+        entry.score = score;
+        ranking.add(new Suggestion(id, entry.label, score));
+    }
+
+    public synchronized void remove(long id) {
+        removeInternal(id);
+    }
+
+    public synchronized void clear() {
+        keys.clear();
+        entries.clear();
+        ranking.clear();
+    }
+
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    private void removeInternal(long id) {
+        Entry old = entries.remove(id);
+        if (old == null) return;
+        old.keys.forEach(keys::remove);
+        ranking.remove(new Suggestion(id, old.label, old.score));
+    }
+
+    /**
+     * Labels having a word that starts with {@code prefix}, best score first.
+     * Labels that start with the prefix itself rank above mid-label matches.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = Analyzer.normalize(prefix.trim());
+        if (normalized.isEmpty() || limit <= 0) return List.of();
+
+        Set<Long> matches = new HashSet<>();
+        int scanned = 0;
+        for (Long id : keys.subMap(normalized, normalized + Character.MAX_VALUE).values()) {
+            if (++scanned > MAX_SCANNED_KEYS) return suggestByScore(normalized, limit);
+            matches.add(id);
+        }
+
+        List<Suggestion> leading = new ArrayList<>();
+        List<Suggestion> inner = new ArrayList<>();
+        for (Long id : matches) {
+            Entry entry = entries.get(id);
+            if (entry == null) continue;
+            Suggestion s = new Suggestion(id, entry.label, entry.score);
+            if (entry.normalizedLabel.startsWith(normalized)) leading.add(s);
+            else inner.add(s);
+        }
+        leading.sort(ORDER);
+        inner.sort(ORDER);
+        return first(limit, leading, inner);
+    }
+
+    /** The same ranking, found by walking every label best first instead of every matching key. */
+    private List<Suggestion> suggestByScore(String normalized, int limit) {
+        List<Suggestion> leading = new ArrayList<>(limit);
+        List<Suggestion> inner = new ArrayList<>(limit);
+        for (Suggestion s : ranking) {
+            Entry entry = entries.get(s.id());
+            if (entry == null) continue;
+            if (entry.normalizedLabel.startsWith(normalized)) {
+                leading.add(s);
+                // Nothing further down can outrank these
+                if (leading.size() == limit) break;
+            } else if (inner.size() < limit && entry.keys.stream().anyMatch(key -> key.startsWith(normalized))) {
+                inner.add(s);
+            }
+        }
+        return first(limit, leading, inner);
+    }
+
+    // Labels starting with the prefix come before mid-label matches
+    private static List<Suggestion> first(int limit, List<Suggestion> leading, List<Suggestion> inner) {
+        List<Suggestion> result = new ArrayList<>(limit);
+        for (Suggestion s : leading) {
+            if (result.size() == limit) return result;
+            result.add(s);
+        }
+        for (Suggestion s : inner) {
+            if (result.size() == limit) return result;
+            result.add(s);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package com.personalwiki.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed form of a user query.
+ * <pre>
+ *   wiki search          both terms must match (AND is implicit)
+ *   "release notes"      phrase
+ *   docker OR podman     either term
+ *   -draft / NOT draft   excludes pages containing the term
+ * </pre>
+ * The query is a conjunction of {@link #getGroups() groups}, each group being a disjunction of clauses.
+ */
+public final class SearchQuery {
+
+    /** A single term, or a phrase when it holds more than one term. */
+    public record Clause(List<String> terms) {
+        public boolean isPhrase() {
+            return terms.size() > 1;
+        }
+    }
+
+    private final List<List<Clause>> groups;
+    private final List<Clause> excluded;
+
+    private SearchQuery(List<List<Clause>> groups, List<Clause> excluded) {
+        this.groups = groups;
+        this.excluded = excluded;
+    }
+
+    public List<List<Clause>> getGroups() {
+        return groups;
+    }
+
+    public List<Clause> getExcluded() {
+        return excluded;
+    }
+
+    public boolean isEmpty() {
+        return groups.isEmpty();
+    }
+
+    /** Every distinct positive term, in query order. */
+    public List<String> positiveTerms() {
+        List<String> terms = new ArrayList<>();
+        for (List<Clause> group : groups) {
+            for (Clause clause : group) {
+                for (String term : clause.terms()) {
+                    if (!terms.contains(term)) terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    public static SearchQuery parse(String input) {
+        List<List<Clause>> groups = new ArrayList<>();
+        List<Clause> excluded = new ArrayList<>();
+        if (input == null) return new SearchQuery(groups, excluded);
+
+        boolean negateNext = false;
+        boolean orNext = false;
+        int i = 0;
+        int length = input.length();
+
+        while (i < length) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            boolean negate = negateNext;
+            negateNext = false;
+            if (c == '-' && i + 1 < length && !Character.isWhitespace(input.charAt(i + 1))) {
+                negate = true;
+                i++;
+                c = input.charAt(i);
+            }
+
+            String raw;
+            boolean quoted = c == '"';
+            if (quoted) {
+                int close = input.indexOf('"', i + 1);
+                if (close < 0) close = length;
+                raw = input.substring(i + 1, close);
+                i = Math.min(close + 1, length);
+            } else {
+                int end = i;
+                while (end < length && !Character.isWhitespace(input.charAt(end))) end++;
+                raw = input.substring(i, end);
+                i = end;
+            }
+
+            if (!quoted && !negate) {
+                if (raw.equals("OR")) {
+                    orNext = !groups.isEmpty();
+                    continue;
+                }
+                if (raw.equals("AND")) continue;
+                if (raw.equals("NOT")) {
+                    negateNext = true;
+                    continue;
+                }
+            }
+
+            List<String> terms = Analyzer.terms(raw);
+            if (terms.isEmpty()) continue;
+
+            // An unquoted word such as foo-bar splits into several terms and behaves like a phrase
+            addClause(groups, excluded, new Clause(terms), negate, orNext);
+            orNext = false;
+        }
+        return new SearchQuery(groups, excluded);
+    }
+
+    private static void addClause(List<List<Clause>> groups, List<Clause> excluded,
+                                  Clause clause, boolean negate, boolean or) {
+        if (negate) {
+            excluded.add(clause);
+        } else if (or) {
+            groups.get(groups.size() - 1).add(clause);
+        } else {
+            List<Clause> group = new ArrayList<>();
+            group.add(clause);
+            groups.add(group);
+        }
+    }
+}
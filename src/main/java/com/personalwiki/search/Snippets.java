@@ -0,0 +1,147 @@
+package com.personalwiki.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cuts highlighted excerpts out of a page using the match offsets stored in the index.
+ * Output is HTML-escaped text where matches are wrapped in {@code <mark>}.
+ */
+public final class Snippets {
+
+    private static final int LEADING_CONTEXT = 40;
+    private static final int BOUNDARY_SEARCH = 15;
+
+    private Snippets() {
+    }
+
+    /**
+     * Up to {@code maxSnippets} windows of about {@code width} characters, each one placed
+     * where the matches are densest, returned in document order. Without any match the
+     * beginning of the content is returned instead.
+     * <p>
+     * The offsets come from the index and the content from the database, which can briefly
+     * disagree (a search between a save's commit and its indexing): offsets past the end of
+     * the content are ignored.
+     */
+    public static List<String> build(String content, int[] offsets, int maxSnippets, int width) {
+        List<String> snippets = new ArrayList<>();
+        if (content == null || content.isEmpty()) return snippets;
+        offsets = Arrays.stream(offsets).filter(offset -> offset < content.length()).toArray();
+        if (offsets.length == 0) {
+            snippets.add(render(content, 0, Math.min(content.length(), width), new int[0]));
+            return snippets;
+        }
+
+        boolean[] used = new boolean[offsets.length];
+        List<int[]> windows = new ArrayList<>();
+        for (int n = 0; n < maxSnippets; n++) {
+            int best = -1;
+            int bestCount = 0;
+            int hi = 0;
+            for (int lo = 0; lo < offsets.length; lo++) {
+                if (used[lo]) continue;
+                if (hi < lo) hi = lo;
+                while (hi + 1 < offsets.length && offsets[hi + 1] < offsets[lo] + width - LEADING_CONTEXT) hi++;
+                int count = 0;
+                for (int k = lo; k <= hi; k++) if (!used[k]) count++;
+                if (count > bestCount) {
+                    bestCount = count;
+                    best = lo;
+                }
+            }
+            if (best < 0) break;
+
+            int start = Math.max(0, offsets[best] - LEADING_CONTEXT);
+            int end = Math.min(content.length(), start + width);
+            used[best] = true;
+            for (int k = 0; k < offsets.length; k++) {
+                if (offsets[k] >= start && offsets[k] < end) used[k] = true;
+            }
+            if (start < end) windows.add(new int[]{start, end});
+        }
+
+        windows.sort((a, b) -> Integer.compare(a[0], b[0]));
+        for (int[] window : windows) {
+            snippets.add(render(content, window[0], window[1], offsets));
+        }
+        return snippets;
+    }
+
+    /**
+     * How much of the content {@link #build} reads for these offsets, plus one character
+     * that tells whether the text goes on.
+     */
+    public static int charsNeeded(int[] offsets, int width) {
+        int last = offsets.length == 0 ? 0 : Arrays.stream(offsets).max().getAsInt();
+        return (int) Math.min(Integer.MAX_VALUE, (long) last + width + 1);
+    }
+
+    /** The whole text, escaped, with every token whose term is in {@code terms} marked. */
+    public static String highlight(String text, Collection<String> terms) {
+        if (text == null) return null;
+        int[] offsets = Analyzer.tokenize(text).stream()
+                .filter(token -> terms.contains(token.term()))
+                .mapToInt(Analyzer.Token::start)
+                .toArray();
+        return render(text, 0, text.length(), offsets);
+    }
+
+    private static String render(String content, int start, int end, int[] offsets) {
+        // Snap the window to whitespace so that words are not cut in half
+        if (start > 0) {
+            int limit = Math.min(end, start + BOUNDARY_SEARCH);
+            for (int i = start; i < limit; i++) {
+                if (Character.isWhitespace(content.charAt(i))) {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        if (end < content.length()) {
+            int limit = Math.max(start, end - BOUNDARY_SEARCH);
+            for (int i = end; i > limit; i--) {
+                if (Character.isWhitespace(content.charAt(i - 1))) {
+                    end = i - 1;
+                    break;
+                }
+            }
+        }
+
+        StringBuilder out = new StringBuilder(end - start + 32);
+        if (start > 0) out.append('…');
+        int cursor = start;
+        int from = Arrays.binarySearch(offsets, start);
+        for (int k = from < 0 ? -from - 1 : from; k < offsets.length && offsets[k] < end; k++) {
+            int matchStart = offsets[k];
+            if (matchStart < cursor) continue;
+            int matchEnd = matchStart;
+            while (matchEnd < end && Character.isLetterOrDigit(content.charAt(matchEnd))) matchEnd++;
+            escape(content, cursor, matchStart, out);
+            out.append("<mark>");
+            escape(content, matchStart, matchEnd, out);
+            out.append("</mark>");
+            cursor = matchEnd;
+        }
+        escape(content, cursor, end, out);
+        if (end < content.length()) out.append('…');
+        return out.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                case '\n', '\r', '\t' -> out.append(' ');
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.personalwiki.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maps every three-character sequence of a lowercased text to the pages containing it.
+ * <p>
+ * A substring query of three characters or more can only match pages holding all of
+ * its trigrams, so intersecting their posting lists yields a small candidate set that
+ * the caller then verifies. Shorter queries have no trigram and cannot use the index.
+ * <p>
+ * The trigrams of every page are kept as a packed array, so re-indexing or removing a page
+ * only touches its own posting lists.
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final Map<Long, PageIdSet> postings = new HashMap<>();
+    private final Map<Integer, long[]> docGrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Lowercases the way SQL {@code lower()} does, so verification matches the old LIKE behaviour. */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    public void index(int docId, String text) {
+        Set<Long> grams = trigrams(normalize(text));
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            long[] packed = new long[grams.size()];
+            int i = 0;
+            for (Long gram : grams) {
+                postings.computeIfAbsent(gram, k -> new PageIdSet()).add(docId);
+                packed[i++] = gram;
+            }
+            docGrams.put(docId, packed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drops the page from the posting lists of its trigrams. */
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docGrams.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(int docId) {
+        long[] grams = docGrams.remove(docId);
+        if (grams == null) return;
+        for (long gram : grams) {
+            PageIdSet set = postings.get(gram);
+            if (set != null && set.remove(docId) && set.isEmpty()) postings.remove(gram);
+        }
+    }
+
+    /**
+     * Pages that may contain {@code query}, or {@code null} when the query is too short
+     * to be answered by the index.
+     */
+    public PageIdSet candidates(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM) return null;
+
+        lock.readLock().lock();
+        try {
+            List<PageIdSet> lists = new ArrayList<>();
+            for (Long gram : trigrams(normalized)) {
+                PageIdSet set = postings.get(gram);
+                if (set == null) return new PageIdSet();
+                lists.add(set);
+            }
+            lists.sort(Comparator.comparingInt(PageIdSet::cardinality));
+
+            PageIdSet result = lists.get(0).copy();
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result = result.and(lists.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
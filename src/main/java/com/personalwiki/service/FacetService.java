@@ -0,0 +1,87 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.FacetResultDTO;
+import com.personalwiki.search.FacetIndex;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tag and type filtering with live facet counts, answered from in-memory bitmaps.
+ */
+@Service
+public class FacetService implements PageIndex {
+
+    private final FacetIndex index = new FacetIndex();
+
+    private volatile boolean ready;
+
+    public FacetResultDTO filter(FacetIndex.Filter filter, int page, int size) {
+        FacetIndex.Result result = index.filter(filter);
+
+        // Positions in the bitmap are ints: a window starting past them cannot be asked for
+        long from = (long) page * size;
+        if (page < 0 || size < 1 || from > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page out of range: " + page);
+        }
+        long to = from + size;
+
+        // Ids come out of the bitmap in ascending order, so paging is a simple window
+        List<Long> ids = new ArrayList<>();
+        long[] position = {0};
+        result.pages().forEach(id -> {
+            if (position[0] >= from && position[0] < to) ids.add((long) id);
+            position[0]++;
+        });
+
+        return new FacetResultDTO(result.pages().cardinality(), page, size, ids,
+                result.tagCounts(), result.typeCounts());
+    }
+
+    /** Every page matching the filter, in ascending id order. */
+    public List<Long> pageIds(FacetIndex.Filter filter) {
+        List<Long> ids = new ArrayList<>();
+        index.filter(filter).pages().forEach(id -> ids.add((long) id));
+        return ids;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ── PageIndex ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void index(PageDocument doc) {
+        index.index(doc);
+    }
+
+    @Override
+    public void remove(Long pageId) {
+        index.remove(pageId);
+    }
+
+    @Override
+    public void clear() {
+        ready = false;
+        index.clear();
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        return !ready;
+    }
+
+    @Override
+    public void rebuilt() {
+        ready = true;
+    }
+
+    @Override
+    public boolean readsContent() {
+        return false;
+    }
+}
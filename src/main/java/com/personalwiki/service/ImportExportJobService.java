@@ -0,0 +1,255 @@
+package com.personalwiki.service;
+
+import com.personalwiki.job.Job;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs imports and exports in the background, so that they outlive proxy timeouts and can
+ * report progress.
+ * <p>
+ * Jobs run on a small fixed pool ({@code piki.jobs.max-concurrent}, one by default) with a
+ * bounded queue: every import competes for the single write connection, so running more at
+ * once would only make them, and interactive saves, wait longer. A full queue rejects new
+ * jobs with {@link RejectedExecutionException}. Uploads and export archives are kept under
+ * {@code piki.jobs.dir}; finished jobs and their files are dropped after
+ * {@code piki.jobs.retention-minutes}.
+ */
+@Slf4j
+@Service
+public class ImportExportJobService {
+
+    // A cancelled job stops at its next page or batch; this only bounds a batch stuck on the database
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final PageImportService pageImportService;
+    private final PageExportService pageExportService;
+    private final Path jobDir;
+    private final long retentionMinutes;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ImportExportJobService(PageImportService pageImportService,
+                                  PageExportService pageExportService,
+                                  @Value("${piki.jobs.dir:./data/jobs}") String jobDir,
+                                  @Value("${piki.jobs.max-concurrent:1}") int maxConcurrent,
+                                  @Value("${piki.jobs.queue-capacity:8}") int queueCapacity,
+                                  @Value("${piki.jobs.retention-minutes:60}") long retentionMinutes) throws IOException {
+        this.pageImportService = pageImportService;
+        this.pageExportService = pageExportService;
+        this.jobDir = Paths.get(jobDir);
+        this.retentionMinutes = retentionMinutes;
+
+        // Files of the jobs of a previous run: nothing refers to them any more
+        Files.createDirectories(this.jobDir);
+        try (var files = Files.list(this.jobDir)) {
+            files.forEach(ImportExportJobService::deleteQuietly);
+        }
+
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("piki-job-");
+        threads.setThreadPriority(Thread.NORM_PRIORITY - 1);
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threads, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // ── Submitting ────────────────────────────────────────────────────────────
+
+    /** Queues the import of an uploaded .zip or .json file; the upload is moved out of the request first. */
+    public Job submitImport(MultipartFile file, boolean zip, boolean overwrite, List<String> selectedTitles)
+            throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path upload = jobDir.resolve(id + ".upload");
+        // The multipart file is deleted at the end of the request
+        file.transferTo(upload);
+        Job job = new Job(id, Job.Kind.IMPORT, null, Files.size(upload));
+        List<String> titles = selectedTitles != null ? List.copyOf(selectedTitles) : List.of();
+
+        return submit(job, () -> {
+            try (InputStream in = new CountingInputStream(new BufferedInputStream(Files.newInputStream(upload)), job)) {
+                PageImportService.ImportResult result = pageImportService.importPages(in, zip, overwrite, titles, job);
+                job.succeed(Map.of(
+                        "imported", result.imported(),
+                        "skipped", result.skipped(),
+                        "overwritten", result.overwritten(),
+                        "message", result.imported() + " imported, " + result.skipped() + " skipped, "
+                                + result.overwritten() + " overwritten"), null);
+            } finally {
+                deleteQuietly(upload);
+            }
+        }, upload);
+    }
+
+    /** Queues the export of the given pages to an archive kept until the job expires. */
+    public Job submitExport(List<Long> pageIds) {
+        String id = UUID.randomUUID().toString();
+        Path archive = jobDir.resolve(id + ".zip");
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(pageIds));
+        Job job = new Job(id, Job.Kind.EXPORT, ids.size(), null);
+
+        return submit(job, () -> {
+            try (OutputStream out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(archive)), job)) {
+                pageExportService.writeZip(ids, out, job);
+            }
+            job.succeed(Map.of("pages", job.getPagesProcessed().get(), "bytes", Files.size(archive)), archive);
+        }, archive);
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private Job submit(Job job, Work work, Path file) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, work, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(file);
+            throw e;
+        }
+        return job;
+    }
+
+    private static void run(Job job, Work work, Path file) {
+        if (job.isCancelRequested()) {
+            job.markCancelled();
+            deleteQuietly(file);
+            return;
+        }
+        job.start();
+        try {
+            work.run();
+        } catch (CancellationException e) {
+            deleteQuietly(file);
+            job.markCancelled();
+        } catch (Exception e) {
+            log.warn("{} job {} failed", job.getKind(), job.getId(), e);
+            deleteQuietly(file);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    // ── Following ─────────────────────────────────────────────────────────────
+
+    public Optional<Job> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Jobs still known, newest first. */
+    public List<Job> listJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(Job::getCreatedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Asks a job to stop. A queued job never starts; a running one stops at its next page
+     * or batch. An import keeps the batches it had already committed.
+     */
+    public Optional<Job> cancel(String id) {
+        Job job = jobs.get(id);
+        if (job != null && !job.isFinished()) job.requestCancel();
+        return Optional.ofNullable(job);
+    }
+
+    /** Drops the jobs finished more than {@code piki.jobs.retention-minutes} ago, with their files. */
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void purgeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getFinishedAt().isAfter(limit)) return false;
+            if (job.getResultFile() != null) deleteQuietly(job.getResultFile());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs are asked to stop rather than interrupted (see JobProgress)
+        jobs.values().forEach(Job::requestCancel);
+        executor.shutdown();
+        // Waits for them to stop before the data source is closed under them
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Import/export jobs still running after {} s, shutting down anyway", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    // ── Byte counting ─────────────────────────────────────────────────────────
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final Job job;
+
+        CountingInputStream(InputStream in, Job job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) job.addBytes(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) job.addBytes(count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            job.addBytes(count);
+            return count;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final Job job;
+
+        CountingOutputStream(OutputStream out, Job job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.addBytes(1);
+        }
+
+        // FilterOutputStream would write the array byte by byte
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            job.addBytes(length);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.GraphEdgeDTO;
+import com.personalwiki.dto.GraphNodeDTO;
+import com.personalwiki.dto.NeighborhoodDTO;
+import com.personalwiki.dto.PageLinkDTO;
+import com.personalwiki.dto.PageLinksResultDTO;
+import com.personalwiki.search.LinkGraph;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backlinks, outgoing links, orphans and neighbourhoods, answered from the in-memory
+ * {@link LinkGraph} without reading page content.
+ */
+@Service
+public class LinkGraphService implements PageIndex {
+
+    private final LinkGraph graph = new LinkGraph();
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean contains(Long pageId) {
+        return graph.contains(pageId);
+    }
+
+    public PageLinksResultDTO backlinks(Long pageId, int page, int size) {
+        return toResult(graph.backlinks(pageId), page, size);
+    }
+
+    public PageLinksResultDTO outgoing(Long pageId, int page, int size) {
+        return toResult(graph.outgoing(pageId), page, size);
+    }
+
+    public PageLinksResultDTO orphans(int page, int size) {
+        return toResult(graph.orphans().toArray(), page, size);
+    }
+
+    public NeighborhoodDTO neighborhood(Long pageId, int hops, int maxNodes) {
+        LinkGraph.Neighborhood result = graph.neighborhood(pageId, hops, maxNodes);
+
+        List<GraphNodeDTO> nodes = new ArrayList<>(result.distances().size());
+        for (Map.Entry<Integer, Integer> node : result.distances().entrySet()) {
+            nodes.add(new GraphNodeDTO((long) node.getKey(), graph.title(node.getKey()), node.getValue()));
+        }
+        List<GraphEdgeDTO> edges = result.edges().stream()
+                .map(edge -> new GraphEdgeDTO((long) edge[0], (long) edge[1]))
+                .toList();
+        return new NeighborhoodDTO(pageId, hops, nodes, edges, result.truncated());
+    }
+
+    private PageLinksResultDTO toResult(int[] ids, int page, int size) {
+        int from = (int) Math.min((long) page * size, ids.length);
+        int to = Math.min(from + size, ids.length);
+        List<PageLinkDTO> pages = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pages.add(new PageLinkDTO((long) ids[i], graph.title(ids[i])));
+        }
+        return new PageLinksResultDTO(ids.length, page, size, pages);
+    }
+
+    // ── PageIndex ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void index(PageDocument doc) {
+        graph.index(doc);
+    }
+
+    @Override
+    public void remove(Long pageId) {
+        graph.remove(pageId);
+    }
+
+    @Override
+    public void clear() {
+        ready = false;
+        graph.clear();
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        return !ready;
+    }
+
+    @Override
+    public void rebuilt() {
+        ready = true;
+    }
+
+    @Override
+    public boolean readsMetadata() {
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.personalwiki.service;
+
+import com.personalwiki.render.RenderCache;
+import jakarta.annotation.PostConstruct;
+import org.commonmark.Extension;
+import org.commonmark.ext.autolink.AutolinkExtension;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.ext.task.list.items.TaskListItemsExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Renders page markdown to HTML on the server.
+ * Output is cached by content hash: a page is rendered once per distinct content,
+ * and editing it changes the hash, so nothing ever needs to be invalidated.
+ */
+@Service
+public class MarkdownService {
+
+    // Bump when the parser setup changes, so spilled HTML from older versions is ignored
+    private static final String RENDERER_VERSION = "1";
+
+    private static final List<Extension> EXTENSIONS = List.of(
+            TablesExtension.create(),
+            StrikethroughExtension.create(),
+            AutolinkExtension.create(),
+            TaskListItemsExtension.create());
+
+    // Both are immutable and thread-safe
+    private final Parser parser = Parser.builder().extensions(EXTENSIONS).build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .extensions(EXTENSIONS)
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
+    @Value("${piki.render.cache-size-mb:64}")
+    private long cacheSizeMb;
+
+    @Value("${piki.render.spill-dir:}")
+    private String spillDir;
+
+    @Value("${piki.render.spill-size-mb:512}")
+    private long spillSizeMb;
+
+    private RenderCache cache;
+
+    public record Rendered(String hash, String html) {
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = new RenderCache(cacheSizeMb * 1024 * 1024,
+                spillDir.isBlank() ? null : Paths.get(spillDir),
+                spillSizeMb * 1024 * 1024);
+    }
+
+    /** Hash identifying the rendered output of this content, used as the cache key. */
+    public String hash(String markdown) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(RENDERER_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update((markdown != null ? markdown : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** Renders {@code markdown}, whose {@link #hash} is already known, or returns the cached HTML. */
+    public Rendered render(String hash, String markdown) {
+        String html = cache.get(hash);
+        if (html == null) {
+            html = renderer.render(parser.parse(markdown != null ? markdown : ""));
+            cache.put(hash, html);
+        }
+        return new Rendered(hash, html);
+    }
+
+    public RenderCache.Stats stats() {
+        return cache.stats();
+    }
+}
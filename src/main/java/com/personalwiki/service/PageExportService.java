@@ -0,0 +1,195 @@
+package com.personalwiki.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.personalwiki.dto.PageExportDTO;
+import com.personalwiki.job.JobProgress;
+import com.personalwiki.repository.PageRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes an export archive straight to an output stream: {@code pages.json}, then every image
+ * the pages reference, under {@code images/}.
+ * <p>
+ * Pages are read in batches of {@link #BATCH_SIZE} as scalar rows, and images are copied from
+ * disk through a channel, so memory does not grow with the number of pages or the size of the
+ * images. An image referenced by several pages is written once. Formats that are already
+ * compressed (all the upload formats) are stored as they are instead of being deflated again.
+ * <p>
+ * Each batch is read in its own short read-only transaction and written to the stream after
+ * it; images are written outside any transaction. A slow download therefore never holds a
+ * database connection, at the price of an archive that is consistent per batch only.
+ */
+@Service
+public class PageExportService {
+
+    public static final String PAGES_ENTRY = "pages.json";
+    public static final String IMAGES_PREFIX = "images/";
+
+    private static final int BATCH_SIZE = 200;
+    private static final Path UPLOAD_DIR = Paths.get("./data/uploads/").toAbsolutePath().normalize();
+
+    // ![...](/uploads/filename.ext)
+    private static final Pattern IMAGE_LINK = Pattern.compile("\\(/uploads/([^)]+)\\)");
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "jpg", "jpeg", "png", "gif", "webp", "avif", "heic", "mp3", "mp4", "webm", "ogg", "zip", "gz", "7z");
+
+    private final PageRepository pageRepository;
+    private final TransactionTemplate readOnly;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    public PageExportService(PageRepository pageRepository, PlatformTransactionManager transactionManager) {
+        this.pageRepository = pageRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /** Writes the archive of the given pages, in the order given; unknown ids are skipped. */
+    public void writeZip(Collection<Long> pageIds, OutputStream out) throws IOException {
+        writeZip(pageIds, out, JobProgress.NONE);
+    }
+
+    /** Same, reporting every page written to {@code progress} and stopping between batches once it is cancelled. */
+    public void writeZip(Collection<Long> pageIds, OutputStream out, JobProgress progress) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Set<String> images = writePages(new ArrayList<>(new LinkedHashSet<>(pageIds)), zip, progress);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        for (String filename : images) {
+            progress.checkCancelled();
+            writeImage(filename, zip, buffer);
+        }
+        // The caller owns the stream: finish the archive without closing it
+        zip.finish();
+        zip.flush();
+    }
+
+    /** Writes pages.json and returns the images referenced by the pages. */
+    private Set<String> writePages(List<Long> ids, ZipOutputStream zip, JobProgress progress) throws IOException {
+        Set<String> images = new LinkedHashSet<>();
+        zip.putNextEntry(new ZipEntry(PAGES_ENTRY));
+        JsonGenerator json = mapper.getFactory().createGenerator(zip);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.useDefaultPrettyPrinter();
+        json.writeStartArray();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            progress.checkCancelled();
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+
+            Map<Long, PageExportDTO> pages = readOnly.execute(status -> readBatch(batch));
+
+            for (Long id : batch) {
+                PageExportDTO dto = pages.get(id);
+                if (dto == null) continue;
+                json.writeObject(dto);
+                if (dto.getContent() != null) {
+                    Matcher matcher = IMAGE_LINK.matcher(dto.getContent());
+                    while (matcher.find()) images.add(matcher.group(1));
+                }
+            }
+            json.flush();
+            progress.pagesProcessed(batch.size());
+        }
+        json.writeEndArray();
+        json.close();
+        zip.closeEntry();
+        return images;
+    }
+
+    // The rows and the tags of a batch, read together so that they agree
+    private Map<Long, PageExportDTO> readBatch(List<Long> batch) {
+        Map<Long, List<String>> tags = new HashMap<>();
+        pageRepository.findTagsByPageIdIn(batch)
+                .forEach(tag -> tags.computeIfAbsent((Long) tag[0], k -> new ArrayList<>()).add((String) tag[2]));
+        Map<Long, PageExportDTO> pages = new HashMap<>();
+        for (Object[] row : pageRepository.findRowsByIdIn(batch)) {
+            Long id = (Long) row[0];
+            pages.put(id, toExport(row, tags.getOrDefault(id, new ArrayList<>())));
+        }
+        return pages;
+    }
+
+    private static PageExportDTO toExport(Object[] row, List<String> tags) {
+        PageExportDTO dto = new PageExportDTO();
+        dto.setTitle((String) row[1]);
+        dto.setContent((String) row[2]);
+        dto.setTypeName((String) row[4]);
+        dto.setTypeColor((String) row[5]);
+        dto.setTypeIcon((String) row[6]);
+        dto.setTags(tags);
+        dto.setCreatedAt((LocalDateTime) row[7]);
+        dto.setUpdatedAt((LocalDateTime) row[8]);
+        return dto;
+    }
+
+    private static void writeImage(String filename, ZipOutputStream zip, ByteBuffer buffer) throws IOException {
+        Path path = UPLOAD_DIR.resolve(filename).normalize();
+        // Links are page content: never follow one out of the uploads directory
+        if (!path.startsWith(UPLOAD_DIR) || !Files.isRegularFile(path)) return;
+
+        try (FileChannel file = FileChannel.open(path)) {
+            ZipEntry entry = new ZipEntry(IMAGES_PREFIX + filename);
+            if (isCompressed(filename)) {
+                // Stored entries declare their size and CRC up front
+                long size = file.size();
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                entry.setCrc(crc(file, buffer));
+            }
+            zip.putNextEntry(entry);
+            // Not closed: closing the channel would close the archive
+            WritableByteChannel target = Channels.newChannel(zip);
+            long position = 0;
+            long size = file.size();
+            while (position < size) {
+                position += file.transferTo(position, size - position, target);
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private static long crc(FileChannel file, ByteBuffer buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = 0;
+        buffer.clear();
+        int read;
+        while ((read = file.read(buffer, position)) > 0) {
+            position += read;
+            buffer.flip();
+            crc.update(buffer);
+            buffer.clear();
+        }
+        return crc.getValue();
+    }
+
+    private static boolean isCompressed(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(filename.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,193 @@
+package com.personalwiki.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.personalwiki.dto.PageExportDTO;
+import com.personalwiki.dto.PageRequestDTO;
+import com.personalwiki.job.JobProgress;
+import com.personalwiki.repository.PageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads an export archive ({@code .zip}) or a bare {@code pages.json} as a stream.
+ * <p>
+ * Pages are parsed one at a time from the JSON tokens and written in batches of
+ * {@link #BATCH_SIZE}, each batch in its own transaction; images are copied from the archive
+ * to the uploads directory as they come. Only one batch of pages is held at a time, so memory
+ * does not depend on the size of the archive. Pages are imported as they are read: when an
+ * archive turns out to be broken, or the import is cancelled, the batches before are kept.
+ */
+@Service
+@RequiredArgsConstructor
+public class PageImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final Path UPLOAD_DIR = Paths.get("./data/uploads/").toAbsolutePath().normalize();
+
+    private final PageService pageService;
+    private final PageRepository pageRepository;
+    private final TypeService typeService;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /** What an import did; an imported page that replaced another is also counted as overwritten. */
+    public record ImportResult(int imported, int skipped, int overwritten) {
+    }
+
+    /**
+     * Imports the pages of {@code in}, read as a ZIP archive or as JSON (one page or an array).
+     * Pages whose title is already used are skipped, or replace the existing page when
+     * {@code overwrite} is set; a non-empty {@code selectedTitles} restricts the import to those titles.
+     */
+    public ImportResult importPages(InputStream in, boolean zip, boolean overwrite, Collection<String> selectedTitles)
+            throws IOException {
+        return importPages(in, zip, overwrite, selectedTitles, JobProgress.NONE);
+    }
+
+    /** Same, reporting every page read to {@code progress} and stopping between pages once it is cancelled. */
+    public ImportResult importPages(InputStream in, boolean zip, boolean overwrite, Collection<String> selectedTitles,
+                                    JobProgress progress) throws IOException {
+        Batch batch = new Batch(overwrite, selectedTitles != null ? new HashSet<>(selectedTitles) : Set.of(), progress);
+        if (zip) {
+            readZip(in, batch);
+        } else {
+            readJson(in, batch);
+        }
+        batch.flush();
+        return new ImportResult(batch.imported, batch.skipped, batch.overwritten);
+    }
+
+    // ── Reading ───────────────────────────────────────────────────────────────
+
+    private void readZip(InputStream in, Batch batch) throws IOException {
+        Files.createDirectories(UPLOAD_DIR);
+        try (ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (name.equals(PageExportService.PAGES_ENTRY)) {
+                    readJson(zip, batch);
+                } else if (name.startsWith(PageExportService.IMAGES_PREFIX) && !entry.isDirectory()) {
+                    batch.progress.checkCancelled();
+                    copyImage(name.substring(PageExportService.IMAGES_PREFIX.length()), zip);
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /** Parses pages one by one; the stream is left open (it may be a ZIP entry). */
+    private void readJson(InputStream in, Batch batch) throws IOException {
+        try (JsonParser json = mapper.getFactory().createParser(in)) {
+            json.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = json.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                batch.add(mapper.readValue(json, PageExportDTO.class));
+            } else if (token == JsonToken.START_ARRAY) {
+                while (json.nextToken() == JsonToken.START_OBJECT) {
+                    batch.add(mapper.readValue(json, PageExportDTO.class));
+                }
+            } else if (token != null) {
+                throw new IllegalArgumentException("Expected a page or an array of pages");
+            }
+        }
+    }
+
+    private static void copyImage(String filename, InputStream in) throws IOException {
+        if (filename.isEmpty()) return;
+        Path target = UPLOAD_DIR.resolve(filename).normalize();
+        // Entry names come from the archive: never write outside the uploads directory
+        if (!target.startsWith(UPLOAD_DIR) || target.equals(UPLOAD_DIR)) return;
+        Files.createDirectories(target.getParent());
+        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // ── Writing ───────────────────────────────────────────────────────────────
+
+    /** Pages waiting to be written, by lower-case title, and the counts so far. */
+    private class Batch {
+        private final boolean overwrite;
+        private final Set<String> selectedTitles;
+        private final JobProgress progress;
+        private final Map<String, PageExportDTO> pages = new LinkedHashMap<>();
+        private int imported;
+        private int skipped;
+        private int overwritten;
+
+        Batch(boolean overwrite, Set<String> selectedTitles, JobProgress progress) {
+            this.overwrite = overwrite;
+            this.selectedTitles = selectedTitles;
+            this.progress = progress;
+        }
+
+        void add(PageExportDTO dto) {
+            progress.checkCancelled();
+            progress.pagesProcessed(1);
+            if (!selectedTitles.isEmpty() && !selectedTitles.contains(dto.getTitle())) return;
+            if (dto.getTitle() == null || dto.getTitle().isBlank()) {
+                skipped++;
+                return;
+            }
+            // A duplicate inside the batch is handled like an existing page; earlier batches are already in the database
+            String key = dto.getTitle().toLowerCase();
+            if (pages.containsKey(key)) {
+                if (!overwrite) {
+                    skipped++;
+                    return;
+                }
+                pages.remove(key);
+                overwritten++;
+            }
+            pages.put(key, dto);
+            imported++;
+            if (pages.size() >= BATCH_SIZE) flush();
+        }
+
+        void flush() {
+            if (pages.isEmpty()) return;
+            Map<String, Long> replaced = new HashMap<>();
+            for (Object[] existing : pageRepository.findIdsByLowerTitleIn(pages.keySet())) {
+                if (overwrite) {
+                    replaced.putIfAbsent((String) existing[1], (Long) existing[0]);
+                } else if (pages.remove((String) existing[1]) != null) {
+                    imported--;
+                    skipped++;
+                }
+            }
+            // Replaced pages are only deleted in the transaction that creates their replacements
+            pageService.replacePages(replaced.values(),
+                    pages.values().stream().map(PageImportService.this::toRequest).toList());
+            overwritten += replaced.size();
+            pages.clear();
+        }
+    }
+
+    private PageRequestDTO toRequest(PageExportDTO dto) {
+        PageRequestDTO req = new PageRequestDTO();
+        req.setTitle(dto.getTitle());
+        req.setContent(dto.getContent());
+        req.setTags(dto.getTags() != null ? dto.getTags() : new ArrayList<>());
+
+        // Match type by name
+        if (dto.getTypeName() != null) {
+            req.setType(typeService.findOrCreateType(dto.getTypeName(), dto.getTypeColor(), dto.getTypeIcon()));
+        }
+        return req;
+    }
+}
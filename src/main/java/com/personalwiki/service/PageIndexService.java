@@ -0,0 +1,161 @@
+package com.personalwiki.service;
+
+import com.personalwiki.event.PageChangedEvent;
+import com.personalwiki.event.PagesChangedEvent;
+import com.personalwiki.model.Page;
+import com.personalwiki.repository.PageRepository;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Keeps every {@link PageIndex} in sync with the pages table.
+ * Page writes are applied once their transaction has committed; at start-up the
+ * indexes that could not restore themselves are rebuilt from the database.
+ * <p>
+ * When only the tags or the type of pages change, the indexes that do not read bodies are
+ * fed body-less documents right away, and those that read both are reloaded in the
+ * background, so a tag rename or merge does not load every tagged page on the request thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PageIndexService {
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    private final List<PageIndex> indexes;
+
+    private final PageRepository pageRepository;
+
+    private final PageService pageService;
+
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("piki-reindex-"));
+
+    // Orders background reloads with page writes: a reloaded batch never overwrites a newer save
+    private final Object writeLock = new Object();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPageChanged(PageChangedEvent event) {
+        synchronized (writeLock) {
+            for (PageIndex index : indexes) {
+                if (event.isDeleted()) {
+                    index.remove(event.getPageId());
+                } else {
+                    index.index(event.getDocument());
+                }
+            }
+        }
+    }
+
+    /** Refreshes pages whose tags or type changed behind their back (rename, merge, delete, retag). */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPagesChanged(PagesChangedEvent event) {
+        List<PageIndex> metadataOnly = indexes.stream().filter(i -> i.readsMetadata() && !i.readsContent()).toList();
+        List<PageIndex> full = indexes.stream().filter(i -> i.readsMetadata() && i.readsContent()).toList();
+        List<Long> ids = List.copyOf(event.getPageIds());
+
+        forEachBatch(ids, batch -> {
+            synchronized (writeLock) {
+                apply(metadataOnly, batch, loadMetadata(batch));
+            }
+        });
+        if (full.isEmpty() || ids.isEmpty()) return;
+        reloader.execute(() -> {
+            try {
+                forEachBatch(ids, batch -> {
+                    synchronized (writeLock) {
+                        apply(full, batch, loadBatch(batch).stream().map(PageDocument::from).toList());
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not reindex {} page(s) after a tag or type change", ids.size(), e);
+            }
+        });
+    }
+
+    private static void forEachBatch(List<Long> ids, Consumer<List<Long>> action) {
+        for (int from = 0; from < ids.size(); from += REBUILD_BATCH_SIZE) {
+            action.accept(ids.subList(from, Math.min(from + REBUILD_BATCH_SIZE, ids.size())));
+        }
+    }
+
+    // Pages deleted in the meantime are dropped
+    private static void apply(List<PageIndex> targets, List<Long> batch, List<PageDocument> docs) {
+        Set<Long> missing = new HashSet<>(batch);
+        for (PageDocument doc : docs) {
+            missing.remove(doc.getId());
+            targets.forEach(index -> index.index(doc));
+        }
+        for (Long id : missing) {
+            targets.forEach(index -> index.remove(id));
+        }
+    }
+
+    // Pages with their tags, type and body: the indexes need all of it
+    private List<Page> loadBatch(List<Long> ids) {
+        return pageService.withContent(pageRepository.findAllWithTagsByIdIn(ids));
+    }
+
+    // Pages without their body, from two scalar queries
+    private List<PageDocument> loadMetadata(List<Long> ids) {
+        Map<Long, List<Object[]>> tags = new HashMap<>();
+        pageRepository.findTagsByPageIdIn(ids)
+                .forEach(tag -> tags.computeIfAbsent((Long) tag[0], k -> new ArrayList<>()).add(tag));
+        List<PageDocument> docs = new ArrayList<>();
+        for (Object[] row : pageRepository.findMetadataRowsByIdIn(ids)) {
+            List<Object[]> pageTags = tags.getOrDefault((Long) row[0], List.of());
+            docs.add(new PageDocument(
+                    (Long) row[0],
+                    (String) row[1],
+                    null,
+                    (Long) row[2],
+                    (String) row[3],
+                    pageTags.stream().map(tag -> (Long) tag[1]).toList(),
+                    pageTags.stream().map(tag -> (String) tag[2]).toList(),
+                    (LocalDateTime) row[4],
+                    (LocalDateTime) row[5]));
+        }
+        return docs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildStaleIndexes() {
+        List<PageIndex> stale = indexes.stream().filter(PageIndex::needsRebuild).toList();
+        if (stale.isEmpty()) return;
+
+        long start = System.currentTimeMillis();
+        stale.forEach(PageIndex::clear);
+
+        List<Long> ids = pageRepository.findAllIds();
+        for (int from = 0; from < ids.size(); from += REBUILD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + REBUILD_BATCH_SIZE, ids.size()));
+            for (Page page : loadBatch(batch)) {
+                PageDocument doc = PageDocument.from(page);
+                stale.forEach(index -> index.index(doc));
+            }
+        }
+
+        stale.forEach(PageIndex::rebuilt);
+        log.info("Rebuilt {} page index(es) from {} pages in {} ms",
+                stale.size(), ids.size(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdown();
+    }
+}
@@ -1,46 +1,159 @@
 package com.personalwiki.service;
 
+import com.personalwiki.dto.PagePatchDTO;
 import com.personalwiki.dto.PageRequestDTO;
+import com.personalwiki.dto.PageSummaryDTO;
+import com.personalwiki.dto.PageSummaryListDTO;
+import com.personalwiki.event.PageChangedEvent;
+import com.personalwiki.event.TagChangedEvent;
 import com.personalwiki.model.Page;
+import com.personalwiki.model.PageContent;
 import com.personalwiki.model.Tag;
 import com.personalwiki.model.Type;
+import com.personalwiki.repository.PageContentRepository;
 import com.personalwiki.repository.PageRepository;
 import com.personalwiki.repository.TagRepository;
 import com.personalwiki.repository.TypeRepository;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
 public class PageService {
 
+    private static final int CONTENT_BATCH_SIZE = 500;
+    private static final int WRITE_BATCH_SIZE = 500;
+
     @Autowired
     private PageRepository pageRepository;
 
     @Autowired
-    private TagRepository tagRepository;
+    private PageContentRepository pageContentRepository;
 
     @Autowired
     private TypeRepository typeRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private SubstringSearchService substringSearchService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private RevisionService revisionService;
+
+    @Autowired
+    private UsageCounterService usageCounterService;
+
+    @Transactional(readOnly = true)
     public List<Page> getAllPages() {
-        return pageRepository.findAllWithTags();
+        return withContent(pageRepository.findAllWithTags());
+    }
+
+    /**
+     * One page of summaries, newest first. {@code cursor} is the {@code nextCursor} of the
+     * previous page, or null for the first one. Seeking on (updatedAt, id) keeps every
+     * page as cheap as the first. The key moves when a page is edited, though: a page edited
+     * while a client walks the listing jumps back to the front, so it is skipped if it was not
+     * listed yet (and pages created meanwhile never show up). A page is never listed twice,
+     * and deletions do not shift the pages after the cursor.
+     */
+    @Transactional(readOnly = true)
+    public PageSummaryListDTO listSummaries(String cursor, int size) {
+        // One extra row tells whether there is a next page
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<PageSummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = pageRepository.findSummaries(limit);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = pageRepository.findSummariesBefore(position.updatedAt(), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<PageSummaryDTO> summaries = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+
+        if (!summaries.isEmpty()) {
+            Map<Long, PageSummaryDTO> byId = new HashMap<>();
+            summaries.forEach(summary -> byId.put(summary.getId(), summary));
+            for (Object[] row : pageRepository.findTagNamesByPageIdIn(byId.keySet())) {
+                byId.get((Long) row[0]).getTags().add((String) row[1]);
+            }
+            summaries.forEach(summary -> Collections.sort(summary.getTags()));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            PageSummaryDTO last = summaries.get(summaries.size() - 1);
+            nextCursor = new Cursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new PageSummaryListDTO(summaries, size, nextCursor);
+    }
+
+    /** Position in the listing, passed to clients as an opaque URL-safe string. */
+    private record Cursor(LocalDateTime updatedAt, Long id) {
+
+        String encode() {
+            String raw = updatedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
     }
 
+    @Transactional(readOnly = true)
     public Optional<Page> getPageById(Long id) {
-        return pageRepository.findByIdWithTags(id);
+        return pageRepository.findByIdWithTags(id).map(page -> {
+            pageContentRepository.findById(id).ifPresent(body -> page.setContent(body.getContent()));
+            return page;
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> getPageContent(Long id) {
+        Optional<String> content = pageContentRepository.findById(id)
+                .map(body -> body.getContent() != null ? body.getContent() : "");
+        if (content.isEmpty() && pageRepository.existsById(id)) return Optional.of("");
+        return content;
     }
 
+    @Transactional(readOnly = true)
     public List<Page> getPagesByType(Long typeId) {
         return typeRepository.findById(typeId)
-                .map(type -> pageRepository.findByTypeWithTags(type))
+                .map(type -> withContent(pageRepository.findByTypeWithTags(type)))
                 .orElse(List.of());
     }
 
     public List<Tag> getAllTags() {
-        return tagRepository.findAll();
+        return referenceDataCache.allTags();
     }
 
     @Transactional
@@ -57,32 +170,207 @@ public class PageService {
             resolvedTags.forEach(page::addTag);
         }
 
-        return pageRepository.save(page);
+        Page saved = pageRepository.save(page);
+        pageContentRepository.save(new PageContent(saved.getId(), dto.getContent()));
+        usageCounterService.apply(new UsageCounterService.Changes().page(saved, 1));
+        saved.setContent(dto.getContent());
+        revisionService.recordCreated(saved.getId(),
+                new RevisionService.PageState(saved.getTitle(), dto.getContent(), saved.getCreatedAt()));
+        eventPublisher.publishEvent(PageChangedEvent.saved(saved));
+        return saved;
+    }
+
+    /**
+     * Creates many pages in one transaction, for the import. Pages, bodies and page_tags rows
+     * reach the database as JDBC batches; tags are resolved once per chunk, and each chunk
+     * is flushed then detached so that memory does not grow with the number of pages.
+     */
+    @Transactional
+    public void createPages(List<PageRequestDTO> dtos) {
+        for (int from = 0; from < dtos.size(); from += WRITE_BATCH_SIZE) {
+            List<PageRequestDTO> chunk = dtos.subList(from, Math.min(from + WRITE_BATCH_SIZE, dtos.size()));
+
+            // Tags and types are detached by the previous clear(): resolve them again (cache hits)
+            Set<String> tagNames = new HashSet<>();
+            chunk.stream().filter(dto -> dto.getTags() != null).forEach(dto -> tagNames.addAll(dto.getTags()));
+            Map<String, Tag> tagsByName = new HashMap<>();
+            findOrCreateTags(tagNames).forEach(tag -> tagsByName.put(tag.getName(), tag));
+            Map<Long, Optional<Type>> types = new HashMap<>();
+            UsageCounterService.Changes usage = new UsageCounterService.Changes();
+
+            for (PageRequestDTO dto : chunk) {
+                Page page = new Page();
+                page.setTitle(dto.getTitle());
+                page.setContent(dto.getContent());
+                if (dto.getType() != null && dto.getType().getId() != null) {
+                    types.computeIfAbsent(dto.getType().getId(), typeRepository::findById).ifPresent(page::setType);
+                }
+                if (dto.getTags() != null) {
+                    for (String tagName : dto.getTags()) {
+                        Tag tag = tagName != null ? tagsByName.get(tagName.toLowerCase().trim()) : null;
+                        if (tag != null) page.addTag(tag);
+                    }
+                }
+
+                // The id comes from the sequence on persist, so the insert itself can wait for the flush
+                entityManager.persist(page);
+                entityManager.persist(new PageContent(page.getId(), dto.getContent()));
+                entityManager.persist(revisionService.firstRevision(page.getId(),
+                        new RevisionService.PageState(page.getTitle(), dto.getContent(), page.getCreatedAt())));
+                eventPublisher.publishEvent(PageChangedEvent.saved(page));
+                usage.page(page, 1);
+            }
+            usageCounterService.apply(usage);
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Deletes the pages being replaced and creates their replacements in the same transaction,
+     * so that a failed batch leaves the replaced pages in place.
+     */
+    @Transactional
+    public void replacePages(Collection<Long> replacedIds, List<PageRequestDTO> dtos) {
+        replacedIds.forEach(this::deletePage);
+        // Deletes reach the database before the new pages, which may reuse their titles
+        entityManager.flush();
+        createPages(dtos);
     }
 
     @Transactional
     public Page updatePage(Long id, PageRequestDTO dto) {
         Page page = pageRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Page not found : " + id));
+        RevisionService.PageState previous = new RevisionService.PageState(page.getTitle(),
+                pageContentRepository.findById(id).map(PageContent::getContent).orElse(null), page.getUpdatedAt());
+        UsageCounterService.Changes usage = new UsageCounterService.Changes().page(page, -1);
 
         page.setTitle(dto.getTitle());
-        page.setContent(dto.getContent());
+        // The body lives in its own table: touch the page so that an edit of the body alone still bumps updatedAt
+        page.setUpdatedAt(LocalDateTime.now());
 
         // Update the Type
         Optional<Type> resolved = resolveType(dto.getType());
         page.setType(resolved.orElse(null));
 
-        page.getTags().clear();
-        if (dto.getTags() != null && !dto.getTags().isEmpty()) {
-            findOrCreateTags(dto.getTags()).forEach(page::addTag);
+        // Only the difference reaches page_tags: unchanged tags keep their rows
+        Set<Tag> tags = dto.getTags() != null ? findOrCreateTags(dto.getTags()) : Set.of();
+        page.getTags().retainAll(tags);
+        tags.forEach(page::addTag);
+        usageCounterService.apply(usage.page(page, 1));
+
+        // Flush so that @PreUpdate has stamped updatedAt before the indexes snapshot the page
+        Page saved = pageRepository.saveAndFlush(page);
+        pageContentRepository.save(new PageContent(id, dto.getContent()));
+        saved.setContent(dto.getContent());
+        revisionService.recordUpdated(id, previous,
+                new RevisionService.PageState(saved.getTitle(), dto.getContent(), saved.getUpdatedAt()));
+        eventPublisher.publishEvent(PageChangedEvent.saved(saved));
+        return saved;
+    }
+
+    /**
+     * Applies the fields present in the patch, and only those. Nothing is written when they match
+     * the stored page, and page_tags is only touched when the set of tags differs.
+     * Throws {@link OptimisticLockingFailureException} when the page was saved since
+     * {@code patch.version}, and IllegalArgumentException for edits that do not fit the body.
+     */
+    @Transactional
+    public Page patchPage(Long id, PagePatchDTO patch) {
+        if (patch.getVersion() == null) {
+            throw new IllegalArgumentException("The version the changes were made against is required");
+        }
+        Page page = pageRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Page not found : " + id));
+        if (!patch.getVersion().equals(page.getVersion())) {
+            throw new OptimisticLockingFailureException("Page " + id + " was saved since version "
+                    + patch.getVersion() + " (current version: " + page.getVersion() + ")");
+        }
+
+        String previousContent = pageContentRepository.findById(id).map(PageContent::getContent).orElse(null);
+        RevisionService.PageState previous = new RevisionService.PageState(page.getTitle(), previousContent, page.getUpdatedAt());
+        UsageCounterService.Changes usage = new UsageCounterService.Changes().page(page, -1);
+        boolean changed = false;
+
+        if (patch.getTitle() != null && !patch.getTitle().equals(page.getTitle())) {
+            page.setTitle(patch.getTitle());
+            changed = true;
+        }
+
+        if (patch.getType() != null) {
+            Type type = resolveType(patch.getType()).orElse(null);
+            Long typeId = type != null ? type.getId() : null;
+            Long currentTypeId = page.getType() != null ? page.getType().getId() : null;
+            if (!Objects.equals(typeId, currentTypeId)) {
+                page.setType(type);
+                changed = true;
+            }
+        }
+
+        if (patch.getTags() != null) {
+            Set<String> names = normalizeTagNames(patch.getTags());
+            Set<String> current = new HashSet<>();
+            page.getTags().forEach(tag -> current.add(tag.getName()));
+            if (!names.equals(current)) {
+                Set<Tag> tags = findOrCreateTags(names);
+                page.getTags().retainAll(tags);
+                tags.forEach(page::addTag);
+                changed = true;
+            }
         }
 
-        return pageRepository.save(page);
+        String content = previousContent;
+        if (patch.getContent() != null) {
+            content = patch.getContent();
+        } else if (patch.getContentEdits() != null && !patch.getContentEdits().isEmpty()) {
+            content = applyEdits(previousContent != null ? previousContent : "", patch.getContentEdits());
+        }
+        if (!Objects.equals(content, previousContent)) {
+            pageContentRepository.save(new PageContent(id, content));
+            // As in updatePage: the body lives in its own table, so touch the page to bump updatedAt and version
+            page.setUpdatedAt(LocalDateTime.now());
+            changed = true;
+        }
+
+        page.setContent(content);
+        if (!changed) return page;
+
+        usageCounterService.apply(usage.page(page, 1));
+        Page saved = pageRepository.saveAndFlush(page);
+        saved.setContent(content);
+        revisionService.recordUpdated(id, previous,
+                new RevisionService.PageState(saved.getTitle(), content, saved.getUpdatedAt()));
+        eventPublisher.publishEvent(PageChangedEvent.saved(saved));
+        return saved;
+    }
+
+    /** Applies sorted, non-overlapping replacements to {@code base}. */
+    private static String applyEdits(String base, List<PagePatchDTO.TextEdit> edits) {
+        StringBuilder text = new StringBuilder(base.length());
+        int position = 0;
+        for (PagePatchDTO.TextEdit edit : edits) {
+            if (edit.getStart() < position || edit.getEnd() < edit.getStart() || edit.getEnd() > base.length()) {
+                throw new IllegalArgumentException("Content edits must be sorted, must not overlap and must fit in the "
+                        + base.length() + " characters of the content (edit " + edit.getStart() + "-" + edit.getEnd() + ")");
+            }
+            text.append(base, position, edit.getStart());
+            if (edit.getText() != null) text.append(edit.getText());
+            position = edit.getEnd();
+        }
+        text.append(base, position, base.length());
+        return text.toString();
     }
 
     @Transactional
     public void deletePage(Long id) {
-        pageRepository.deleteById(id);
+        revisionService.deleteHistory(id);
+        pageContentRepository.deleteById(id);
+        pageRepository.findById(id).ifPresent(page -> {
+            usageCounterService.apply(new UsageCounterService.Changes().page(page, -1));
+            pageRepository.delete(page);
+        });
+        eventPublisher.publishEvent(PageChangedEvent.deleted(id));
     }
 
     /**
@@ -95,23 +383,93 @@ public class PageService {
         return typeRepository.findById(dtoType.getId());
     }
 
-    private Set<Tag> findOrCreateTags(List<String> tagNames) {
-        Set<Tag> tags = new HashSet<>();
-        Set<String> seen = new HashSet<>();
+    /**
+     * Resolves tag names in a fixed number of statements whatever their count:
+     * one IN query for the existing tags not cached yet and one batched insert for the missing ones.
+     */
+    private Set<Tag> findOrCreateTags(Collection<String> tagNames) {
+        Set<String> names = normalizeTagNames(tagNames);
+        if (names.isEmpty()) return new HashSet<>();
+
+        Set<Tag> tags = new HashSet<>(referenceDataCache.findTagsByName(names));
+        if (tags.size() < names.size()) {
+            Set<String> missing = new LinkedHashSet<>(names);
+            tags.forEach(tag -> missing.remove(tag.getName()));
+            // Writes share the single connection, so no other transaction can create the same tag meanwhile
+            List<Tag> created = tagRepository.saveAll(missing.stream().map(Tag::new).toList());
+            for (Tag tag : created) {
+                tags.add(tag);
+                eventPublisher.publishEvent(new TagChangedEvent(tag.getId(), tag.getName(), false));
+            }
+        }
+        return tags;
+    }
 
+    private static Set<String> normalizeTagNames(Collection<String> tagNames) {
+        Set<String> names = new LinkedHashSet<>();
         for (String tagName : tagNames) {
+            if (tagName == null) continue;
             String normalizedName = tagName.toLowerCase().trim();
-            if (!seen.add(normalizedName)) continue;
-
-            Tag tag = tagRepository.findByNameIgnoreCase(normalizedName)
-                    .orElseGet(() -> tagRepository.save(new Tag(normalizedName)));
-            tags.add(tag);
+            if (!normalizedName.isEmpty()) names.add(normalizedName);
         }
-        return tags;
+        return names;
     }
 
+    /**
+     * Case-insensitive substring search on titles.
+     * Served by the trigram index; the LIKE query is only used while the index is being built.
+     */
+    @Transactional(readOnly = true)
     public List<Page> searchByTitle(String title) {
-        return pageRepository.findByTitleContainingIgnoreCase(title);
+        return substringSearchService.findByTitle(title)
+                .map(this::loadPagesInOrder)
+                .orElseGet(() -> withContent(pageRepository.findByTitleContainingIgnoreCase(title)));
+    }
+
+    /**
+     * Case-insensitive substring search on bodies.
+     * Served by the trigram index; while it is being built, bodies are scanned batch by batch
+     * (they may be stored compressed, which rules out a LIKE query).
+     */
+    @Transactional(readOnly = true)
+    public List<Page> searchByContent(String content) {
+        return substringSearchService.findByContent(content)
+                .map(this::loadPagesInOrder)
+                .orElseGet(() -> loadPagesInOrder(scanContent(content)));
+    }
+
+    private List<Long> scanContent(String content) {
+        String needle = content.toLowerCase(Locale.ROOT);
+        List<Long> ids = pageRepository.findAllIds();
+        List<Long> matches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CONTENT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + CONTENT_BATCH_SIZE, ids.size()));
+            for (Object[] row : pageRepository.findContentByIdIn(batch)) {
+                String body = (String) row[1];
+                if (body != null && body.toLowerCase(Locale.ROOT).contains(needle)) matches.add((Long) row[0]);
+            }
+        }
+        return matches;
+    }
+
+    private List<Page> loadPagesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        List<Page> pages = new ArrayList<>(pageRepository.findAllWithTagsByIdIn(ids));
+        pages.sort(Comparator.comparing(Page::getId));
+        return withContent(pages);
+    }
+
+    /** Fills in the bodies of pages that are returned whole, with one query per batch. */
+    public List<Page> withContent(List<Page> pages) {
+        for (int from = 0; from < pages.size(); from += CONTENT_BATCH_SIZE) {
+            List<Page> batch = pages.subList(from, Math.min(from + CONTENT_BATCH_SIZE, pages.size()));
+            Map<Long, Page> byId = new HashMap<>();
+            batch.forEach(page -> byId.put(page.getId(), page));
+            for (Object[] row : pageRepository.findContentByIdIn(byId.keySet())) {
+                byId.get((Long) row[0]).setContent((String) row[1]);
+            }
+        }
+        return pages;
     }
 
 }
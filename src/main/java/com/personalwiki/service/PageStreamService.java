@@ -0,0 +1,150 @@
+package com.personalwiki.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.personalwiki.repository.PageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Writes pages as a JSON array straight to an output stream, with the same shape as
+ * {@code List<Page>} but without ever holding the whole result.
+ * <p>
+ * Rows are read as scalars from a forward-only cursor, so no entity is attached to the
+ * persistence context, and written in batches: only one batch of pages (and its tags)
+ * is in memory at a time, whatever the number of matches.
+ * Read-only transactions run on the read pool, so a long stream does not hold up writes.
+ */
+@Service
+@RequiredArgsConstructor
+public class PageStreamService {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final PageRepository pageRepository;
+    private final SubstringSearchService substringSearchService;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = pageRepository.streamAllRows()) {
+            write(rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeByType(Long typeId, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = pageRepository.streamRowsByTypeId(typeId)) {
+            write(rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeByTitle(String title, OutputStream out) throws IOException {
+        Optional<List<Long>> ids = substringSearchService.findByTitle(title);
+        if (ids.isPresent()) {
+            writeIds(ids.get(), out);
+            return;
+        }
+        try (Stream<Object[]> rows = pageRepository.streamRowsByTitleContaining(title)) {
+            write(rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeByContent(String content, OutputStream out) throws IOException {
+        Optional<List<Long>> ids = substringSearchService.findByContent(content);
+        if (ids.isPresent()) {
+            writeIds(ids.get(), out);
+            return;
+        }
+        // Bodies may be stored compressed: filter them here rather than with LIKE
+        String needle = content.toLowerCase(Locale.ROOT);
+        try (Stream<Object[]> rows = pageRepository.streamAllRows()) {
+            write(rows.filter(row -> row[2] != null && ((String) row[2]).toLowerCase(Locale.ROOT).contains(needle)), out);
+        }
+    }
+
+    // The index already knows the matching ids: fetch them batch by batch instead of using a cursor
+    private void writeIds(List<Long> ids, OutputStream out) throws IOException {
+        try (JsonGenerator json = open(out)) {
+            json.writeStartArray();
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                writeBatch(pageRepository.findRowsByIdIn(batch), json);
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private void write(Stream<Object[]> rows, OutputStream out) throws IOException {
+        try (JsonGenerator json = open(out)) {
+            json.writeStartArray();
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            Iterator<Object[]> cursor = rows.iterator();
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == BATCH_SIZE) {
+                    writeBatch(batch, json);
+                    batch.clear();
+                }
+            }
+            writeBatch(batch, json);
+            json.writeEndArray();
+        }
+    }
+
+    private JsonGenerator open(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        // The servlet container owns the response stream
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return json;
+    }
+
+    private void writeBatch(List<Object[]> rows, JsonGenerator json) throws IOException {
+        if (rows.isEmpty()) return;
+
+        Map<Long, List<Object[]>> tagsByPage = new HashMap<>();
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+        for (Object[] tag : pageRepository.findTagsByPageIdIn(ids)) {
+            tagsByPage.computeIfAbsent((Long) tag[0], k -> new ArrayList<>()).add(tag);
+        }
+
+        for (Object[] row : rows) {
+            json.writeStartObject();
+            json.writeNumberField("id", (Long) row[0]);
+            json.writeStringField("title", (String) row[1]);
+            json.writeStringField("content", (String) row[2]);
+            if (row[3] == null) {
+                json.writeNullField("type");
+            } else {
+                json.writeObjectFieldStart("type");
+                json.writeNumberField("id", (Long) row[3]);
+                json.writeStringField("name", (String) row[4]);
+                json.writeStringField("color", (String) row[5]);
+                json.writeStringField("icon", (String) row[6]);
+                json.writeEndObject();
+            }
+            json.writeArrayFieldStart("tags");
+            for (Object[] tag : tagsByPage.getOrDefault((Long) row[0], List.of())) {
+                json.writeStartObject();
+                json.writeNumberField("id", (Long) tag[1]);
+                json.writeStringField("name", (String) tag[2]);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writePOJOField("createdAt", row[7]);
+            json.writePOJOField("updatedAt", row[8]);
+            json.writeEndObject();
+        }
+        // Push each batch to the client instead of buffering the response
+        json.flush();
+    }
+}
@@ -0,0 +1,174 @@
+package com.personalwiki.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.personalwiki.event.TagChangedEvent;
+import com.personalwiki.event.TypeChangedEvent;
+import com.personalwiki.model.Tag;
+import com.personalwiki.model.Type;
+import com.personalwiki.repository.TagRepository;
+import com.personalwiki.repository.TypeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Read-through caches for the type and tag reference data.
+ * <p>
+ * Entities themselves are kept in Hibernate's second-level cache (regions {@code types} and
+ * {@code tags}), so {@code findById} returns a managed entity without a query. This class adds
+ * what that cache cannot answer: the full lists and the name-to-id lookups. A cached name is
+ * checked against the entity it points to, so a renamed or deleted tag is never returned
+ * under its old name, even when it was loaded while the tag was being renamed.
+ * <p>
+ * Entries are dropped once a create, update or delete committed in {@link TypeService},
+ * {@link com.personalwiki.controller.TagController} or a page save is announced by its event.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    public static final String TYPE_REGION = "types";
+    public static final String TAG_REGION = "tags";
+
+    private static final int MAX_NAMES = 10_000;
+    private static final String ALL = "all";
+
+    private final TypeRepository typeRepository;
+    private final TagRepository tagRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Cache<String, List<Type>> typeList = cache(1);
+    private final Cache<String, List<Tag>> tagList = cache(1);
+    private final Cache<String, Long> typeIdsByName = cache(MAX_NAMES);
+    private final Cache<String, Long> tagIdsByName = cache(MAX_NAMES);
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /** Detached copies, safe to hand to Jackson or keep across requests. */
+    public List<Type> allTypes() {
+        return typeList.get(ALL, key -> typeRepository.findAll().stream().map(ReferenceDataCache::copy).toList());
+    }
+
+    public Optional<Type> findTypeByName(String name) {
+        String key = name.trim().toLowerCase();
+        Long id = typeIdsByName.get(key, k -> typeRepository.findByNameIgnoreCase(k).map(Type::getId).orElse(null));
+        if (id == null) return Optional.empty();
+
+        Optional<Type> type = typeRepository.findById(id).filter(t -> t.getName().equalsIgnoreCase(key));
+        if (type.isEmpty()) {
+            // Renamed or deleted since it was cached
+            typeIdsByName.invalidate(key);
+            return typeRepository.findByNameIgnoreCase(key);
+        }
+        return type;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTypeChanged(TypeChangedEvent event) {
+        // invalidate(key) waits for a load in flight, so a list read before the write is not kept
+        typeList.invalidate(ALL);
+        if (event.isDeleted()) {
+            typeIdsByName.invalidateAll();
+        } else if (event.getName() != null) {
+            typeIdsByName.put(event.getName().trim().toLowerCase(), event.getTypeId());
+        }
+    }
+
+    // ── Tags ──────────────────────────────────────────────────────────────────
+
+    public List<Tag> allTags() {
+        return tagList.get(ALL, key -> tagRepository.findAll().stream().map(ReferenceDataCache::copy).toList());
+    }
+
+    /**
+     * Managed tags for the given normalized names; unknown names are simply absent.
+     * Known names cost no query, the others are loaded together with one IN query.
+     */
+    public List<Tag> findTagsByName(Collection<String> names) {
+        List<Tag> found = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            Long id = tagIdsByName.getIfPresent(name);
+            Optional<Tag> tag = id != null
+                    ? tagRepository.findById(id).filter(t -> t.getName().equals(name))
+                    : Optional.empty();
+            if (tag.isPresent()) {
+                found.add(tag.get());
+            } else {
+                unknown.add(name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Tag tag : tagRepository.findByNameIn(unknown)) {
+                tagIdsByName.put(tag.getName(), tag.getId());
+                found.add(tag);
+            }
+        }
+        return found;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        tagList.invalidate(ALL);
+        if (event.isDeleted()) {
+            tagIdsByName.invalidateAll();
+        } else if (event.getName() != null) {
+            tagIdsByName.put(event.getName(), event.getTagId());
+        }
+    }
+
+    // ── Metrics ───────────────────────────────────────────────────────────────
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("typeList", stats(typeList, 1));
+        stats.put("tagList", stats(tagList, 1));
+        stats.put("typeNames", stats(typeIdsByName, MAX_NAMES));
+        stats.put("tagNames", stats(tagIdsByName, MAX_NAMES));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : List.of(TYPE_REGION, TAG_REGION)) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) continue;
+            stats.put(region + "Entities", Map.of(
+                    "size", regionStats.getElementCountInMemory(),
+                    "hits", regionStats.getHitCount(),
+                    "misses", regionStats.getMissCount(),
+                    "puts", regionStats.getPutCount()));
+        }
+        return stats;
+    }
+
+    private static Map<String, Object> stats(Cache<?, ?> cache, int maxSize) {
+        CacheStats cacheStats = cache.stats();
+        return Map.of(
+                "size", cache.estimatedSize(),
+                "maxSize", maxSize,
+                "hits", cacheStats.hitCount(),
+                "misses", cacheStats.missCount());
+    }
+
+    private static <K, V> Cache<K, V> cache(int maxSize) {
+        return Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    private static Type copy(Type type) {
+        Type copy = new Type(type.getName(), type.getColor(), type.getIcon());
+        copy.setId(type.getId());
+        return copy;
+    }
+
+    private static Tag copy(Tag tag) {
+        Tag copy = new Tag(tag.getName());
+        copy.setId(tag.getId());
+        return copy;
+    }
+}
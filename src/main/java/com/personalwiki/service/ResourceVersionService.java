@@ -0,0 +1,126 @@
+package com.personalwiki.service;
+
+import com.personalwiki.event.TagChangedEvent;
+import com.personalwiki.event.TypeChangedEvent;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ETags and Last-Modified dates for pages, tags and types, known without a database query,
+ * so that conditional GETs can be answered with 304 straight away.
+ * <p>
+ * A page's ETag combines its id, its updatedAt and a hash of its tags and type, since a tag
+ * rename changes the page JSON without touching updatedAt. Collections use a write
+ * generation, bumped after every committed write that may change them. ETags include the
+ * start-up time so counters restarting from zero never match a client's old ETag.
+ */
+@Service
+public class ResourceVersionService implements PageIndex {
+
+    private final long bootId = System.currentTimeMillis();
+
+    private final AtomicLong tagGeneration = new AtomicLong();
+    private final AtomicLong typeGeneration = new AtomicLong();
+
+    private final Map<Long, PageVersion> pages = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private record PageVersion(long updatedAt, int metaHash, boolean typed, long lastModified) {
+    }
+
+    // ── Versions ──────────────────────────────────────────────────────────────
+
+    /** ETag of {@code GET /api/pages/{id}}, or null when the page is unknown or not loaded yet. */
+    public String pageEtag(Long pageId) {
+        PageVersion version = ready ? pages.get(pageId) : null;
+        if (version == null) return null;
+        // The type's colour and icon are part of the page JSON too
+        String typePart = version.typed() ? "-" + typeGeneration.get() : "";
+        return "\"p" + pageId + "-" + bootId + "-" + version.updatedAt() + "-"
+                + Integer.toHexString(version.metaHash()) + typePart + "\"";
+    }
+
+    /**
+     * ETag of {@code GET /api/pages/{id}/html}, or null when unknown. The HTML depends on the
+     * body alone, and every body edit moves updatedAt, so tag and type changes keep it valid.
+     */
+    public String pageContentEtag(Long pageId) {
+        PageVersion version = ready ? pages.get(pageId) : null;
+        if (version == null) return null;
+        return "\"c" + pageId + "-" + bootId + "-" + version.updatedAt() + "\"";
+    }
+
+    /** Last-Modified of a page in epoch millis, or -1 when unknown. */
+    public long pageLastModified(Long pageId) {
+        PageVersion version = ready ? pages.get(pageId) : null;
+        return version != null ? version.lastModified() : -1;
+    }
+
+    public String tagsEtag() {
+        return "\"tags-" + bootId + "-" + tagGeneration.get() + "\"";
+    }
+
+    public String typesEtag() {
+        return "\"types-" + bootId + "-" + typeGeneration.get() + "\"";
+    }
+
+    // ── Write generations ─────────────────────────────────────────────────────
+
+    // Also published for the tags a page save creates
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        tagGeneration.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTypeChanged(TypeChangedEvent event) {
+        typeGeneration.incrementAndGet();
+    }
+
+    // ── PageIndex ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void index(PageDocument doc) {
+        long updatedAt = doc.getUpdatedAt() != null
+                ? doc.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0;
+        int metaHash = Objects.hash(doc.getTypeId(), doc.getTypeName(), doc.getTagIds(), doc.getTagNames());
+
+        PageVersion previous = pages.get(doc.getId());
+        // Metadata changes (tag rename, ...) do not move updatedAt, so they get the current time
+        long lastModified = previous != null && previous.metaHash() != metaHash
+                ? Math.max(updatedAt, System.currentTimeMillis())
+                : updatedAt;
+        pages.put(doc.getId(), new PageVersion(updatedAt, metaHash, doc.getTypeId() != null, lastModified));
+    }
+
+    @Override
+    public void remove(Long pageId) {
+        pages.remove(pageId);
+    }
+
+    @Override
+    public void clear() {
+        ready = false;
+        pages.clear();
+    }
+
+    @Override
+    public void rebuilt() {
+        ready = true;
+    }
+
+    @Override
+    public boolean readsContent() {
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.RevisionDTO;
+import com.personalwiki.dto.RevisionDiffDTO;
+import com.personalwiki.dto.RevisionSummaryDTO;
+import com.personalwiki.model.PageRevision;
+import com.personalwiki.repository.PageRevisionRepository;
+import com.personalwiki.revision.LineDiff;
+import com.personalwiki.revision.RevisionCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * History of page bodies and titles.
+ * <p>
+ * Every save that changes something adds a revision. Most are stored as a compressed delta
+ * from the previous one, so history grows with what was edited; every
+ * {@link #SNAPSHOT_INTERVAL} revisions (or when a delta would not be smaller) the whole body
+ * is stored instead, which bounds a rebuild to one snapshot plus a few deltas.
+ * Saves that change neither title nor body, like most autosaves, add nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class RevisionService {
+
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    private final PageRevisionRepository revisionRepository;
+
+    /** A page as saved: title, body and the time of the save. */
+    public record PageState(String title, String content, LocalDateTime savedAt) {
+    }
+
+    // ── Recording ─────────────────────────────────────────────────────────────
+
+    @Transactional
+    public void recordCreated(Long pageId, PageState state) {
+        revisionRepository.save(firstRevision(pageId, state));
+    }
+
+    /** Revision 1 of a new page, for callers persisting pages in bulk. */
+    public PageRevision firstRevision(Long pageId, PageState state) {
+        return snapshot(pageId, 1, state);
+    }
+
+    /**
+     * Adds the revision of an edited page. {@code previous} is the page as stored before this
+     * save: the delta is computed from it, and it becomes revision 1 of pages created before
+     * history was kept.
+     */
+    @Transactional
+    public void recordUpdated(Long pageId, PageState previous, PageState current) {
+        String previousBody = body(previous);
+        String body = body(current);
+        PageRevision latest = revisionRepository.findTopByPageIdOrderByRevisionDesc(pageId)
+                .orElseGet(() -> revisionRepository.save(snapshot(pageId, 1, previous)));
+        if (latest.getTitle().equals(current.title()) && body.equals(previousBody)) return;
+
+        int next = latest.getRevision() + 1;
+        // The stored body should be the latest revision; if it is not, start a new chain rather than a wrong delta
+        boolean chained = latest.getLength() == previousBody.length() && latest.getChecksum() == checksum(previousBody);
+        if (!chained || next - latest.getBaseRevision() >= SNAPSHOT_INTERVAL) {
+            revisionRepository.save(snapshot(pageId, next, current));
+            return;
+        }
+
+        byte[] delta = RevisionCodec.delta(previousBody, body);
+        // A rewrite of most of the page: a snapshot costs no more and shortens later rebuilds
+        if (delta.length > body.length() / 4) {
+            byte[] whole = RevisionCodec.snapshot(body);
+            if (whole.length <= delta.length) {
+                revisionRepository.save(new PageRevision(null, pageId, next, next, true, current.title(),
+                        body.length(), checksum(body), whole, savedAt(current)));
+                return;
+            }
+        }
+        revisionRepository.save(new PageRevision(null, pageId, next, latest.getBaseRevision(), false, current.title(),
+                body.length(), checksum(body), delta, savedAt(current)));
+    }
+
+    @Transactional
+    public void deleteHistory(Long pageId) {
+        revisionRepository.deleteByPageId(pageId);
+    }
+
+    // ── Reading ───────────────────────────────────────────────────────────────
+
+    @Transactional(readOnly = true)
+    public List<RevisionSummaryDTO> listRevisions(Long pageId) {
+        return revisionRepository.findSummariesByPageId(pageId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RevisionDTO> getRevision(Long pageId, int revision) {
+        return revisionRepository.findByPageIdAndRevision(pageId, revision)
+                .map(target -> new RevisionDTO(pageId, revision, target.getTitle(), rebuild(target), target.getCreatedAt()));
+    }
+
+    /** Line diff between two revisions of a page, or empty when either does not exist. */
+    @Transactional(readOnly = true)
+    public Optional<RevisionDiffDTO> diff(Long pageId, int from, int to) {
+        Optional<PageRevision> fromRevision = revisionRepository.findByPageIdAndRevision(pageId, from);
+        Optional<PageRevision> toRevision = revisionRepository.findByPageIdAndRevision(pageId, to);
+        if (fromRevision.isEmpty() || toRevision.isEmpty()) return Optional.empty();
+
+        List<String> fromLines = LineDiff.lines(rebuild(fromRevision.get()));
+        List<String> toLines = LineDiff.lines(rebuild(toRevision.get()));
+        List<RevisionDiffDTO.DiffChunkDTO> chunks = new ArrayList<>();
+        for (LineDiff.Chunk chunk : LineDiff.diff(fromLines, toLines)) {
+            List<String> lines = switch (chunk.op()) {
+                case EQUAL -> List.of();
+                case DELETE -> stripTerminators(fromLines.subList(chunk.fromLine(), chunk.fromLine() + chunk.length()));
+                case INSERT -> stripTerminators(toLines.subList(chunk.toLine(), chunk.toLine() + chunk.length()));
+            };
+            chunks.add(new RevisionDiffDTO.DiffChunkDTO(chunk.op().name().toLowerCase(),
+                    chunk.fromLine(), chunk.toLine(), chunk.length(), lines));
+        }
+        return Optional.of(new RevisionDiffDTO(from, to,
+                fromRevision.get().getTitle(), toRevision.get().getTitle(), chunks));
+    }
+
+    private String rebuild(PageRevision target) {
+        List<PageRevision> chain = target.isSnapshot()
+                ? List.of(target)
+                : revisionRepository.findChain(target.getPageId(), target.getBaseRevision(), target.getRevision());
+
+        String text = "";
+        for (PageRevision revision : chain) {
+            text = revision.isSnapshot()
+                    ? RevisionCodec.restore(revision.getData())
+                    : RevisionCodec.apply(text, revision.getData());
+        }
+        if (text.length() != target.getLength() || checksum(text) != target.getChecksum()) {
+            throw new IllegalStateException("Revision " + target.getRevision() + " of page "
+                    + target.getPageId() + " could not be rebuilt");
+        }
+        return text;
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static PageRevision snapshot(Long pageId, int revision, PageState state) {
+        String body = body(state);
+        return new PageRevision(null, pageId, revision, revision, true, state.title(),
+                body.length(), checksum(body), RevisionCodec.snapshot(body), savedAt(state));
+    }
+
+    private static String body(PageState state) {
+        return state.content() != null ? state.content() : "";
+    }
+
+    private static LocalDateTime savedAt(PageState state) {
+        return state.savedAt() != null ? state.savedAt() : LocalDateTime.now();
+    }
+
+    private static long checksum(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static List<String> stripTerminators(List<String> lines) {
+        return lines.stream()
+                .map(line -> line.endsWith("\r\n") ? line.substring(0, line.length() - 2)
+                        : line.endsWith("\n") ? line.substring(0, line.length() - 1) : line)
+                .toList();
+    }
+}
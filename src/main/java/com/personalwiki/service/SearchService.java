@@ -0,0 +1,196 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.SearchHitDTO;
+import com.personalwiki.dto.SearchResultDTO;
+import com.personalwiki.model.CompressedTextConverter;
+import com.personalwiki.repository.PageRepository;
+import com.personalwiki.search.FullTextIndex;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIndex;
+import com.personalwiki.search.SearchQuery;
+import com.personalwiki.search.Snippets;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked full-text search over pages.
+ * The index lives in memory and is saved to disk periodically and on shutdown.
+ * At start-up the saved copy is reused when it still matches the database (same page
+ * count, same latest update, and same type and tag names on every page), otherwise it
+ * is rebuilt. The names are checked because tag and type operations change them without
+ * touching the pages, and may not have been flushed before the process stopped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService implements PageIndex {
+
+    private static final String INDEX_FILE = "fulltext.idx";
+    private static final int SNIPPETS_PER_HIT = 2;
+    private static final int SNIPPET_WIDTH = 160;
+
+    private final PageRepository pageRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CompressedTextConverter textConverter;
+
+    private final FullTextIndex index = new FullTextIndex();
+
+    @Value("${piki.search.index-dir:./data/search-index}")
+    private String indexDir;
+
+    private volatile boolean fresh;
+    private volatile boolean dirty;
+
+    // ── Search ────────────────────────────────────────────────────────────────
+
+    public SearchResultDTO search(String query, int page, int size, boolean fuzzy) {
+        FullTextIndex.Result result = index.search(SearchQuery.parse(query), page * size, size, fuzzy);
+
+        Map<Long, int[]> offsets = new HashMap<>();
+        result.hits().forEach(hit -> offsets.put(hit.pageId(), index.contentOffsets(hit.pageId(), result.terms())));
+        Map<Long, String> contents = loadExcerpts(offsets);
+
+        List<SearchHitDTO> hits = result.hits().stream()
+                .map(hit -> new SearchHitDTO(
+                        hit.pageId(),
+                        hit.title(),
+                        Snippets.highlight(hit.title(), result.terms()),
+                        hit.typeId(),
+                        hit.typeName(),
+                        hit.tags(),
+                        hit.score(),
+                        Snippets.build(contents.get(hit.pageId()), offsets.get(hit.pageId()),
+                                SNIPPETS_PER_HIT, SNIPPET_WIDTH)))
+                .toList();
+        return new SearchResultDTO(query, page, size, result.total(), hits);
+    }
+
+    /**
+     * The start of the body of each hit on this page, up to the last match and its snippet.
+     * Bodies are read as stored and only that much is decompressed.
+     */
+    private Map<Long, String> loadExcerpts(Map<Long, int[]> offsets) {
+        Map<Long, String> excerpts = new HashMap<>();
+        if (offsets.isEmpty()) return excerpts;
+        String placeholders = String.join(",", Collections.nCopies(offsets.size(), "?"));
+        jdbcTemplate.query("SELECT page_id, body FROM page_contents WHERE page_id IN (" + placeholders + ")",
+                rs -> {
+                    long pageId = rs.getLong(1);
+                    int chars = Snippets.charsNeeded(offsets.get(pageId), SNIPPET_WIDTH);
+                    excerpts.put(pageId, textConverter.convertToEntityAttribute(rs.getBytes(2), chars));
+                },
+                offsets.keySet().toArray());
+        return excerpts;
+    }
+
+    // ── PageIndex ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void index(PageDocument doc) {
+        index.index(doc);
+        dirty = true;
+    }
+
+    @Override
+    public void remove(Long pageId) {
+        index.remove(pageId);
+        dirty = true;
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        dirty = true;
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        return !fresh;
+    }
+
+    @Override
+    public void rebuilt() {
+        fresh = true;
+        flush();
+    }
+
+    // ── Persistence ───────────────────────────────────────────────────────────
+
+    @PostConstruct
+    public void load() {
+        Path file = Paths.get(indexDir, INDEX_FILE);
+        if (!Files.exists(file)) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            index.readFrom(in);
+        } catch (IOException e) {
+            log.warn("Search index at {} is unreadable, it will be rebuilt: {}", file, e.getMessage());
+            index.clear();
+            return;
+        }
+
+        long dbMaxUpdatedAt = pageRepository.findMaxUpdatedAt()
+                .map(t -> t.toInstant(ZoneOffset.UTC).toEpochMilli())
+                .orElse(0L);
+        fresh = index.size() == pageRepository.count() && index.maxUpdatedAt() == dbMaxUpdatedAt
+                && index.metadataChecksum() == databaseMetadataChecksum();
+        if (!fresh) {
+            log.info("Search index at {} is stale, it will be rebuilt", file);
+        }
+    }
+
+    /** {@link FullTextIndex#metadataChecksum()} of the pages as they are in the database. */
+    private long databaseMetadataChecksum() {
+        long[] sum = {0};
+        jdbcTemplate.query("SELECT p.id, t.id, t.name FROM pages p LEFT JOIN types t ON t.id = p.type_id",
+                rs -> {
+                    long typeId = rs.getLong(2);
+                    sum[0] += FullTextIndex.typeHash(rs.getLong(1), rs.wasNull() ? null : typeId, rs.getString(3));
+                });
+        jdbcTemplate.query("SELECT pt.page_id, t.name FROM page_tags pt JOIN tags t ON t.id = pt.tag_id",
+                rs -> {
+                    sum[0] += FullTextIndex.tagHash(rs.getLong(1), rs.getString(2));
+                });
+        return sum[0];
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${piki.search.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (!dirty || !fresh) return;
+        dirty = false;
+
+        Path dir = Paths.get(indexDir);
+        Path tmp = dir.resolve(INDEX_FILE + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                index.writeTo(out);
+            }
+            Files.move(tmp, dir.resolve(INDEX_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Could not save the search index: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.personalwiki.service;
+
+import com.personalwiki.repository.PageRepository;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIdSet;
+import com.personalwiki.search.PageIndex;
+import com.personalwiki.search.TrigramIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-insensitive substring lookup on titles and content, backed by trigram indexes.
+ * The trigram intersection gives the candidates; only those are checked for a real match.
+ * Until the first rebuild completes, lookups return {@link Optional#empty()} so callers can
+ * fall back to the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubstringSearchService implements PageIndex {
+
+    private static final int VERIFY_BATCH_SIZE = 200;
+
+    private final PageRepository pageRepository;
+
+    private final TrigramIndex titleIndex = new TrigramIndex();
+    private final TrigramIndex contentIndex = new TrigramIndex();
+
+    // Lowercased titles, small enough to keep in memory and verify candidates without a query
+    private final Map<Integer, String> titles = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /** Ids of pages whose title contains {@code query}, in ascending order. */
+    public Optional<List<Long>> findByTitle(String query) {
+        if (!ready) return Optional.empty();
+        String needle = TrigramIndex.normalize(query);
+        PageIdSet candidates = titleIndex.candidates(needle);
+
+        List<Long> ids = new ArrayList<>();
+        if (candidates == null) {
+            // Too short for trigrams: a scan over the in-memory titles is still cheap
+            titles.forEach((id, title) -> {
+                if (title.contains(needle)) ids.add(id.longValue());
+            });
+            Collections.sort(ids);
+        } else {
+            candidates.forEach(id -> {
+                String title = titles.get(id);
+                if (title != null && title.contains(needle)) ids.add((long) id);
+            });
+        }
+        return Optional.of(ids);
+    }
+
+    /** Ids of pages whose content contains {@code query}, in ascending order. */
+    public Optional<List<Long>> findByContent(String query) {
+        if (!ready) return Optional.empty();
+        String needle = TrigramIndex.normalize(query);
+        PageIdSet candidates = contentIndex.candidates(needle);
+        if (candidates == null) return Optional.empty();
+
+        List<Long> candidateIds = new ArrayList<>();
+        candidates.forEach(id -> candidateIds.add((long) id));
+
+        List<Long> ids = new ArrayList<>();
+        for (int from = 0; from < candidateIds.size(); from += VERIFY_BATCH_SIZE) {
+            List<Long> batch = candidateIds.subList(from, Math.min(from + VERIFY_BATCH_SIZE, candidateIds.size()));
+            for (Object[] row : pageRepository.findContentByIdIn(batch)) {
+                String content = (String) row[1];
+                if (content != null && TrigramIndex.normalize(content).contains(needle)) {
+                    ids.add((Long) row[0]);
+                }
+            }
+        }
+        Collections.sort(ids);
+        return Optional.of(ids);
+    }
+
+    // ── PageIndex ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void index(PageDocument doc) {
+        int docId = Math.toIntExact(doc.getId());
+        titleIndex.index(docId, doc.getTitle());
+        contentIndex.index(docId, doc.getContent());
+        titles.put(docId, TrigramIndex.normalize(doc.getTitle()));
+    }
+
+    @Override
+    public void remove(Long pageId) {
+        int docId = Math.toIntExact(pageId);
+        titleIndex.remove(docId);
+        contentIndex.remove(docId);
+        titles.remove(docId);
+    }
+
+    @Override
+    public void clear() {
+        ready = false;
+        titleIndex.clear();
+        contentIndex.clear();
+        titles.clear();
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        return !ready;
+    }
+
+    @Override
+    public void rebuilt() {
+        ready = true;
+    }
+
+    @Override
+    public boolean readsMetadata() {
+        return false;
+    }
+}
@@ -0,0 +1,157 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.SuggestResultDTO;
+import com.personalwiki.dto.SuggestionDTO;
+import com.personalwiki.event.TagChangedEvent;
+import com.personalwiki.event.TypeChangedEvent;
+import com.personalwiki.model.Tag;
+import com.personalwiki.model.Type;
+import com.personalwiki.repository.TagRepository;
+import com.personalwiki.repository.TypeRepository;
+import com.personalwiki.search.PageDocument;
+import com.personalwiki.search.PageIndex;
+import com.personalwiki.search.PrefixIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autocomplete for page titles, tag names and type names.
+ * Pages are ranked by recency, tags and types by the number of pages using them.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService implements PageIndex {
+
+    private final TagRepository tagRepository;
+
+    private final TypeRepository typeRepository;
+
+    private final PrefixIndex pages = new PrefixIndex();
+    private final PrefixIndex tags = new PrefixIndex();
+    private final PrefixIndex types = new PrefixIndex();
+
+    // Usage counters, and what each page contributed to them so updates can be undone
+    private final Map<Long, Integer> tagUsage = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> typeUsage = new ConcurrentHashMap<>();
+    private final Map<Long, Usage> contributions = new ConcurrentHashMap<>();
+
+    private record Usage(Long typeId, List<Long> tagIds) {
+    }
+
+    private volatile boolean ready;
+
+    public SuggestResultDTO suggest(String prefix, int limit) {
+        return new SuggestResultDTO(
+                toDto(pages.suggest(prefix, limit)),
+                toDto(tags.suggest(prefix, limit)),
+                toDto(types.suggest(prefix, limit)));
+    }
+
+    private static List<SuggestionDTO> toDto(List<PrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream()
+                .map(s -> new SuggestionDTO(s.id(), s.label(), s.score()))
+                .toList();
+    }
+
+    // ── PageIndex ─────────────────────────────────────────────────────────────
+
+    @Override
+    public synchronized void index(PageDocument doc) {
+        long updatedAt = doc.getUpdatedAt() != null
+                ? doc.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+        pages.put(doc.getId(), doc.getTitle(), updatedAt);
+
+        Usage previous = contributions.put(doc.getId(), new Usage(doc.getTypeId(), doc.getTagIds()));
+        if (previous != null) uncount(previous);
+
+        if (doc.getTypeId() != null) {
+            int count = typeUsage.merge(doc.getTypeId(), 1, Integer::sum);
+            types.put(doc.getTypeId(), doc.getTypeName(), count);
+        }
+        for (int i = 0; i < doc.getTagIds().size(); i++) {
+            Long tagId = doc.getTagIds().get(i);
+            int count = tagUsage.merge(tagId, 1, Integer::sum);
+            tags.put(tagId, doc.getTagNames().get(i), count);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long pageId) {
+        pages.remove(pageId);
+        Usage previous = contributions.remove(pageId);
+        if (previous != null) uncount(previous);
+    }
+
+    // Tags and types deleted since the page was counted have no counter left to decrement
+    private void uncount(Usage usage) {
+        if (usage.typeId() != null) {
+            Integer count = typeUsage.computeIfPresent(usage.typeId(), (id, n) -> n - 1);
+            if (count != null) types.score(usage.typeId(), count);
+        }
+        for (Long tagId : usage.tagIds()) {
+            Integer count = tagUsage.computeIfPresent(tagId, (id, n) -> n - 1);
+            if (count != null) tags.score(tagId, count);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        ready = false;
+        pages.clear();
+        tags.clear();
+        types.clear();
+        tagUsage.clear();
+        typeUsage.clear();
+        contributions.clear();
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        return !ready;
+    }
+
+    /** Adds the tags and types no page uses yet, which the page feed could not reveal. */
+    @Override
+    public synchronized void rebuilt() {
+        for (Tag tag : tagRepository.findAll()) {
+            if (!tags.contains(tag.getId())) tags.put(tag.getId(), tag.getName(), 0);
+        }
+        for (Type type : typeRepository.findAll()) {
+            if (!types.contains(type.getId())) types.put(type.getId(), type.getName(), 0);
+        }
+        ready = true;
+    }
+
+    // ── Tag and type changes ──────────────────────────────────────────────────
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTagChanged(TagChangedEvent event) {
+        if (event.isDeleted()) {
+            tags.remove(event.getTagId());
+            tagUsage.remove(event.getTagId());
+        } else {
+            tags.put(event.getTagId(), event.getName(), tagUsage.getOrDefault(event.getTagId(), 0));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTypeChanged(TypeChangedEvent event) {
+        if (event.isDeleted()) {
+            types.remove(event.getTypeId());
+            typeUsage.remove(event.getTypeId());
+        } else {
+            types.put(event.getTypeId(), event.getName(), typeUsage.getOrDefault(event.getTypeId(), 0));
+        }
+    }
+
+    @Override
+    public boolean readsContent() {
+        return false;
+    }
+}
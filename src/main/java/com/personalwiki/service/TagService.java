@@ -0,0 +1,121 @@
+package com.personalwiki.service;
+
+import com.personalwiki.event.PagesChangedEvent;
+import com.personalwiki.event.TagChangedEvent;
+import com.personalwiki.model.Tag;
+import com.personalwiki.model.UsageCounter;
+import com.personalwiki.repository.PageRepository;
+import com.personalwiki.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Tag renames, merges, deletions and bulk (un)tagging.
+ * <p>
+ * All of them work on {@code page_tags} with set-based statements: pages are only known by
+ * id, never loaded, so the cost does not depend on their size. The in-memory indexes refresh
+ * the affected pages once the transaction has committed ({@link PagesChangedEvent}); bodies
+ * are only reloaded in the background, for full-text search.
+ */
+@Service
+@RequiredArgsConstructor
+public class TagService {
+
+    // Bound on the ids bound into a single IN clause
+    private static final int ID_BATCH_SIZE = 1000;
+
+    private final TagRepository tagRepository;
+    private final PageRepository pageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsageCounterService usageCounterService;
+
+    public enum RetagAction { ADD, REMOVE }
+
+    /** The tag under its new name; when that name is already taken, the tag is merged into its owner. */
+    @Transactional
+    public Tag renameTag(Long id, String name) {
+        Tag tag = tagRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Tag not found : " + id));
+        Optional<Tag> owner = tagRepository.findByNameIgnoreCase(name).filter(t -> !t.getId().equals(id));
+        if (owner.isPresent()) {
+            mergeTags(List.of(id), owner.get().getId());
+            return owner.get();
+        }
+
+        tag.setName(name);
+        eventPublisher.publishEvent(new TagChangedEvent(id, name, false));
+        eventPublisher.publishEvent(new PagesChangedEvent(pageRepository.findIdsByTagId(id)));
+        return tag;
+    }
+
+    /**
+     * Moves the pages of every source tag to the target, then deletes the sources.
+     * Returns the number of pages whose tags changed.
+     */
+    @Transactional
+    public int mergeTags(Collection<Long> sourceIds, Long targetId) {
+        if (!tagRepository.existsById(targetId)) {
+            throw new RuntimeException("Tag not found : " + targetId);
+        }
+        Set<Long> affected = new LinkedHashSet<>();
+        for (Long sourceId : new LinkedHashSet<>(sourceIds)) {
+            if (sourceId.equals(targetId)) continue;
+            Tag source = tagRepository.findById(sourceId)
+                    .orElseThrow(() -> new RuntimeException("Tag not found : " + sourceId));
+            affected.addAll(pageRepository.findIdsByTagId(sourceId));
+            int copied = tagRepository.copyPageLinks(sourceId, targetId);
+            tagRepository.deletePageLinks(sourceId);
+            tagRepository.delete(source);
+            usageCounterService.apply(new UsageCounterService.Changes().tag(targetId, copied));
+            usageCounterService.remove(UsageCounter.Kind.TAG, sourceId);
+            eventPublisher.publishEvent(new TagChangedEvent(sourceId, source.getName(), true));
+        }
+        eventPublisher.publishEvent(new PagesChangedEvent(new ArrayList<>(affected)));
+        return affected.size();
+    }
+
+    @Transactional
+    public void deleteTag(Long id) {
+        Tag tag = tagRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Tag not found : " + id));
+        List<Long> pageIds = pageRepository.findIdsByTagId(id);
+        tagRepository.deletePageLinks(id);
+        tagRepository.delete(tag);
+        usageCounterService.remove(UsageCounter.Kind.TAG, id);
+        eventPublisher.publishEvent(new TagChangedEvent(id, tag.getName(), true));
+        eventPublisher.publishEvent(new PagesChangedEvent(pageIds));
+    }
+
+    /**
+     * Adds the tag to, or removes it from, the given pages. Unknown ids are ignored.
+     * Returns the number of pages whose tags changed.
+     */
+    @Transactional
+    public int retag(Long tagId, RetagAction action, Collection<Long> pageIds) {
+        if (!tagRepository.existsById(tagId)) {
+            throw new RuntimeException("Tag not found : " + tagId);
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(pageIds));
+        List<Long> affected = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            if (action == RetagAction.ADD) {
+                List<Long> untagged = pageRepository.findIdsWithoutTagByIdIn(tagId, batch);
+                if (!untagged.isEmpty()) tagRepository.addToPages(tagId, untagged);
+                affected.addAll(untagged);
+            } else {
+                List<Long> tagged = pageRepository.findIdsByTagIdAndIdIn(tagId, batch);
+                if (!tagged.isEmpty()) tagRepository.removeFromPages(tagId, tagged);
+                affected.addAll(tagged);
+            }
+        }
+        usageCounterService.apply(new UsageCounterService.Changes()
+                .tag(tagId, action == RetagAction.ADD ? affected.size() : -affected.size()));
+        eventPublisher.publishEvent(new PagesChangedEvent(affected));
+        return affected.size();
+    }
+}
@@ -1,12 +1,16 @@
 package com.personalwiki.service;
 
+import com.personalwiki.event.PagesChangedEvent;
+import com.personalwiki.event.TypeChangedEvent;
 import com.personalwiki.model.Type;
+import com.personalwiki.model.UsageCounter;
 import com.personalwiki.repository.PageRepository;
 import com.personalwiki.repository.TypeRepository;
 import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +24,15 @@ public class TypeService {
     @Autowired
     private PageRepository pageRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UsageCounterService usageCounterService;
+
     /**
      * Populate the database with the 5 default types if it is empty.
      * Only runs on first start-up.
@@ -36,19 +49,38 @@ public class TypeService {
     }
 
     public List<Type> getAllTypes() {
-        return typeRepository.findAll();
+        return referenceDataCache.allTypes();
     }
 
+    // Served from the second-level cache once loaded
+    @Transactional(readOnly = true)
     public Optional<Type> getTypeById(Long id) {
         return typeRepository.findById(id);
     }
 
+    /**
+     * Returns the type with this name, ignoring case, or creates it with the given colour and icon.
+     * Used by the import, which resolves the same few names over and over.
+     */
+    @Transactional
+    public Type findOrCreateType(String name, String color, String icon) {
+        return referenceDataCache.findTypeByName(name).orElseGet(() -> {
+            Type saved = typeRepository.save(new Type(name.trim(),
+                    color != null ? color : "gray",
+                    icon != null ? icon : "📄"));
+            eventPublisher.publishEvent(new TypeChangedEvent(saved.getId(), saved.getName(), false));
+            return saved;
+        });
+    }
+
     @Transactional
     public Type createType(String name, String color, String icon) {
         if (typeRepository.existsByNameIgnoreCase(name)) {
             throw new IllegalArgumentException("The type '" + name + "' already exists");
         }
-        return typeRepository.save(new Type(name.trim(), color, icon));
+        Type saved = typeRepository.save(new Type(name.trim(), color, icon));
+        eventPublisher.publishEvent(new TypeChangedEvent(saved.getId(), saved.getName(), false));
+        return saved;
     }
 
     @Transactional
@@ -62,10 +94,17 @@ public class TypeService {
             throw new IllegalArgumentException("Le type '" + name + "' already exists");
         }
 
+        boolean renamed = !type.getName().equals(name.trim());
         type.setName(name.trim());
         type.setColor(color);
         type.setIcon(icon);
-        return typeRepository.save(type);
+        Type saved = typeRepository.save(type);
+        eventPublisher.publishEvent(new TypeChangedEvent(id, saved.getName(), false));
+        // Colour and icon are not indexed with the pages: only a new name concerns them
+        if (renamed) {
+            eventPublisher.publishEvent(new PagesChangedEvent(pageRepository.findIdsByTypeId(id)));
+        }
+        return saved;
     }
 
     @Transactional
@@ -73,10 +112,15 @@ public class TypeService {
         if (!typeRepository.existsById(id)) {
             throw new RuntimeException("Type not found : " + id);
         }
+        List<Long> pageIds = pageRepository.findIdsByTypeId(id);
         pageRepository.clearTypeFromPages(id);
         typeRepository.deleteById(id);
+        usageCounterService.remove(UsageCounter.Kind.TYPE, id);
+        eventPublisher.publishEvent(new TypeChangedEvent(id, null, true));
+        eventPublisher.publishEvent(new PagesChangedEvent(pageIds));
     }
 
+    @Transactional(readOnly = true)
     public long countPagesByType(Long typeId) {
         return pageRepository.countByTypeId(typeId);
     }
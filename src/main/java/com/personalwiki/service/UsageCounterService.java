@@ -0,0 +1,158 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.UsageStatsDTO;
+import com.personalwiki.model.Page;
+import com.personalwiki.model.Tag;
+import com.personalwiki.model.Type;
+import com.personalwiki.model.UsageCounter;
+import com.personalwiki.model.UsageCounter.Kind;
+import com.personalwiki.repository.UsageCounterRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Number of pages per tag and per type.
+ * <p>
+ * Page writes report what they changed as {@link Changes}, applied in the caller's transaction,
+ * so a counter moves exactly when the page_tags rows or the page type do. Equal deltas are
+ * grouped into one bulk update, which keeps an import chunk to a handful of statements.
+ * A reconciliation at start-up and then nightly recounts everything and repairs any drift,
+ * e.g. after rows were edited by hand.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UsageCounterService {
+
+    private final UsageCounterRepository usageCounterRepository;
+    private final ReferenceDataCache referenceDataCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Net change in pages per tag id and per type id. */
+    public static final class Changes {
+        private final Map<Long, Long> tags = new HashMap<>();
+        private final Map<Long, Long> types = new HashMap<>();
+
+        public Changes tag(Long tagId, long delta) {
+            if (tagId != null) tags.merge(tagId, delta, Long::sum);
+            return this;
+        }
+
+        public Changes type(Long typeId, long delta) {
+            if (typeId != null) types.merge(typeId, delta, Long::sum);
+            return this;
+        }
+
+        /** Counts the page's current tags and type; call with -1 before changing it and +1 after. */
+        public Changes page(Page page, long delta) {
+            for (Tag tag : page.getTags()) tag(tag.getId(), delta);
+            Type type = page.getType();
+            return type != null ? type(type.getId(), delta) : this;
+        }
+    }
+
+    // ── Writing ───────────────────────────────────────────────────────────────
+
+    /** Applies the changes in the caller's transaction, which must exist. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Changes changes) {
+        apply(Kind.TAG, changes.tags);
+        apply(Kind.TYPE, changes.types);
+    }
+
+    /** Drops the counter of a deleted tag or type. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Kind kind, Long id) {
+        usageCounterRepository.deleteCounter(kind, id);
+    }
+
+    private void apply(Kind kind, Map<Long, Long> deltas) {
+        Map<Long, List<Long>> idsByDelta = new HashMap<>();
+        deltas.forEach((id, delta) -> {
+            if (delta != 0) idsByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(id);
+        });
+        idsByDelta.forEach((delta, ids) -> {
+            if (usageCounterRepository.adjust(kind, ids, delta) == ids.size()) return;
+            // First use of a tag or type: its counter starts here
+            Set<Long> missing = new HashSet<>(ids);
+            usageCounterRepository.findExistingIds(kind, ids).forEach(missing::remove);
+            // persist, not save: with an assigned id, save would merge and select every new counter first
+            missing.forEach(id -> entityManager.persist(new UsageCounter(kind, id, Math.max(delta, 0))));
+        });
+    }
+
+    // ── Reading ───────────────────────────────────────────────────────────────
+
+    /** Every tag and type with its number of pages, zero included. */
+    @Transactional(readOnly = true)
+    public UsageStatsDTO usage() {
+        Map<Kind, Map<Long, Long>> counts = new EnumMap<>(Kind.class);
+        for (UsageCounter counter : usageCounterRepository.findAll()) {
+            counts.computeIfAbsent(counter.getKind(), k -> new HashMap<>())
+                    .put(counter.getRefId(), counter.getPageCount());
+        }
+        Map<Long, Long> tagCounts = counts.getOrDefault(Kind.TAG, Map.of());
+        Map<Long, Long> typeCounts = counts.getOrDefault(Kind.TYPE, Map.of());
+        return new UsageStatsDTO(
+                referenceDataCache.allTags().stream()
+                        .map(tag -> new UsageStatsDTO.Usage(tag.getId(), tag.getName(), tagCounts.getOrDefault(tag.getId(), 0L)))
+                        .toList(),
+                referenceDataCache.allTypes().stream()
+                        .map(type -> new UsageStatsDTO.Usage(type.getId(), type.getName(), typeCounts.getOrDefault(type.getId(), 0L)))
+                        .toList());
+    }
+
+    // ── Reconciliation ────────────────────────────────────────────────────────
+
+    /**
+     * Recounts the pages of every tag and type and fixes the counters that differ.
+     * Runs as a write transaction, so page writes wait on the single write connection
+     * instead of changing the counts while they are compared.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${piki.usage.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        Map<UsageCounter.Key, Long> actual = new HashMap<>();
+        usageCounterRepository.countPagesByTag()
+                .forEach(row -> actual.put(new UsageCounter.Key(Kind.TAG, (Long) row[0]), (Long) row[1]));
+        usageCounterRepository.countPagesByType()
+                .forEach(row -> actual.put(new UsageCounter.Key(Kind.TYPE, (Long) row[0]), (Long) row[1]));
+
+        List<UsageCounter> stored = usageCounterRepository.findAll();
+        int repaired = 0;
+        List<UsageCounter> stale = new ArrayList<>();
+        for (UsageCounter counter : stored) {
+            Long count = actual.remove(new UsageCounter.Key(counter.getKind(), counter.getRefId()));
+            if (count == null) {
+                // No page left: a missing counter reads as zero
+                stale.add(counter);
+                if (counter.getPageCount() != 0) repaired++;
+            } else if (count != counter.getPageCount()) {
+                counter.setPageCount(count);
+                repaired++;
+            }
+        }
+        usageCounterRepository.deleteAll(stale);
+        actual.forEach((key, count) -> usageCounterRepository.save(new UsageCounter(key.getKind(), key.getRefId(), count)));
+        repaired += actual.size();
+
+        if (stored.isEmpty()) {
+            log.info("Usage counters: initialized {} counter(s)", repaired);
+        } else if (repaired > 0) {
+            log.warn("Usage counters: repaired {} counter(s) that had drifted", repaired);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.personalwiki.model;
+
+import java.util.Random;
+
+/**
+ * Generated page bodies for {@link CompressedTextConverterBenchmark}: markdown prose, which
+ * deflates about 4 to 1, and application logs, about 6 to 1. Seeded, so every run measures
+ * the same texts.
+ */
+final class BenchmarkBodies {
+
+    private static final String[] WORDS = ("the page wiki markdown system user data when which from into some about "
+            + "their would other these first being could after most where those through because between under "
+            + "while should never").split(" ");
+    private static final String[] LEVELS = {"INFO", "DEBUG", "WARN", "ERROR"};
+    private static final String[] LOGGERS = {"c.p.service.PageService", "o.h.engine.jdbc.spi.SqlExceptionHelper",
+            "c.z.hikari.pool.HikariPool", "o.s.web.servlet.DispatcherServlet"};
+
+    private final Random random;
+
+    BenchmarkBodies(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /** A markdown heading followed by {@code words} words, fifteen to a sentence and a line. */
+    String prose(int words) {
+        StringBuilder text = new StringBuilder("# Specification\n\n");
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(i % 15 == 14 ? ".\n" : " ");
+        }
+        return text.toString();
+    }
+
+    /** {@code lines} lines in the Spring Boot console format. */
+    String log(int lines) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("2026-10-18 12:").append(10 + random.nextInt(50))
+                    .append(':').append(10 + random.nextInt(50))
+                    .append('.').append(100 + random.nextInt(900))
+                    .append(' ').append(LEVELS[random.nextInt(LEVELS.length)])
+                    .append(" [http-nio-8080-exec-").append(random.nextInt(10)).append("] ")
+                    .append(LOGGERS[random.nextInt(LOGGERS.length)])
+                    .append(" : request ").append(random.nextInt(100_000))
+                    .append(" completed in ").append(random.nextInt(500)).append(" ms\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.personalwiki.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and speed of {@link CompressedTextConverter} on generated bodies of 1 KB to 10 MB,
+ * with the default threshold. Not a test: run it by hand with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.personalwiki.model.CompressedTextConverterBenchmark
+ * </pre>
+ * Each body is converted until the JIT has warmed up, then timed over the same number of
+ * rounds; the times are per body.
+ */
+public class CompressedTextConverterBenchmark {
+
+    private static final int THRESHOLD = 4096;
+    // Rounds are sized so that every body adds up to about this many characters
+    private static final int CHARS_PER_BODY = 2_000_000;
+
+    public static void main(String[] args) {
+        BenchmarkBodies bodies = new BenchmarkBodies(42);
+        Map<String, String> cases = new LinkedHashMap<>();
+        cases.put("note 1KB", bodies.prose(150));
+        cases.put("spec 20KB", bodies.prose(3_000));
+        cases.put("spec 200KB", bodies.prose(30_000));
+        cases.put("log 100KB", bodies.log(1_000));
+        cases.put("log 2MB", bodies.log(20_000));
+        cases.put("log 10MB", bodies.log(100_000));
+
+        CompressedTextConverter converter = new CompressedTextConverter(THRESHOLD);
+        System.out.printf("%-12s %10s %10s %7s %10s %10s%n", "body", "raw bytes", "stored", "ratio", "encode ms", "decode ms");
+        cases.forEach((name, text) -> {
+            int rounds = Math.max(3, CHARS_PER_BODY / text.length());
+            byte[] stored = null;
+            String read = null;
+            for (int i = 0; i < rounds; i++) {
+                stored = converter.convertToDatabaseColumn(text);
+                read = converter.convertToEntityAttribute(stored);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) stored = converter.convertToDatabaseColumn(text);
+            long encoded = System.nanoTime();
+            for (int i = 0; i < rounds; i++) read = converter.convertToEntityAttribute(stored);
+            long decoded = System.nanoTime();
+            if (!text.equals(read)) throw new IllegalStateException(name + " did not survive the round trip");
+
+            int raw = text.getBytes(StandardCharsets.UTF_8).length;
+            System.out.printf("%-12s %10d %10d %6.1f%% %10.3f %10.3f%n", name, raw, stored.length,
+                    100.0 * stored.length / raw, (encoded - start) / 1e6 / rounds, (decoded - encoded) / 1e6 / rounds);
+        });
+    }
+}
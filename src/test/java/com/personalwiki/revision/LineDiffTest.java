@@ -0,0 +1,60 @@
+package com.personalwiki.revision;
+
+import com.personalwiki.revision.LineDiff.Chunk;
+import com.personalwiki.revision.LineDiff.Op;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineDiffTest {
+
+    @Test
+    void linesKeepTheirTerminators() {
+        assertThat(LineDiff.lines("one\r\ntwo\nthree")).containsExactly("one\r\n", "two\n", "three");
+        assertThat(LineDiff.lines("")).isEmpty();
+        assertThat(LineDiff.lines(null)).isEmpty();
+    }
+
+    @Test
+    void replacedLineIsOneDeletionAndOneInsertion() {
+        List<Chunk> chunks = LineDiff.diff(LineDiff.lines("a\nb\nc\n"), LineDiff.lines("a\nx\nc\n"));
+
+        assertThat(chunks).containsExactly(
+                new Chunk(Op.EQUAL, 0, 0, 1),
+                new Chunk(Op.DELETE, 1, 1, 1),
+                new Chunk(Op.INSERT, 2, 1, 1),
+                new Chunk(Op.EQUAL, 2, 2, 1));
+    }
+
+    @Test
+    void findsAMinimalScriptInsideTheChangedMiddle() {
+        List<Chunk> chunks = LineDiff.diff(
+                LineDiff.lines("head\na\nb\nc\nd\ntail\n"),
+                LineDiff.lines("head\nb\nc\nx\nd\ntail\n"));
+
+        assertThat(chunks).containsExactly(
+                new Chunk(Op.EQUAL, 0, 0, 1),
+                new Chunk(Op.DELETE, 1, 1, 1),
+                new Chunk(Op.EQUAL, 2, 1, 2),
+                new Chunk(Op.INSERT, 4, 3, 1),
+                new Chunk(Op.EQUAL, 4, 4, 2));
+    }
+
+    @Test
+    void fallsBackToOneReplacementPastTheEditDistanceLimit() {
+        int size = LineDiff.MAX_EDIT_DISTANCE + 500;
+        List<String> from = new ArrayList<>();
+        List<String> to = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            from.add("old " + i + "\n");
+            to.add("new " + i + "\n");
+        }
+
+        assertThat(LineDiff.diff(from, to)).containsExactly(
+                new Chunk(Op.DELETE, 0, 0, size),
+                new Chunk(Op.INSERT, size, 0, size));
+    }
+}
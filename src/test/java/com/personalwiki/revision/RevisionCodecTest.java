@@ -0,0 +1,57 @@
+package com.personalwiki.revision;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RevisionCodecTest {
+
+    @Test
+    void snapshotRestoresTheText() {
+        String text = "# Title\r\nSome *text* with ünïcödé\nno final newline";
+
+        assertThat(RevisionCodec.restore(RevisionCodec.snapshot(text))).isEqualTo(text);
+    }
+
+    @Test
+    void deltaRoundTripsEveryKindOfEdit() {
+        assertRoundTrip("a\nb\n", "a\nb\nc\nd\n");               // insert only
+        assertRoundTrip("a\nb\nc\nd\n", "a\nd\n");               // delete only
+        assertRoundTrip("a\nb\nc\n", "a\nx\nc\n");               // replace
+        assertRoundTrip("", "first\nsecond\n");                   // from empty
+        assertRoundTrip("first\nsecond\n", "");                   // to empty
+        assertRoundTrip("same\n", "same\n");                      // unchanged
+    }
+
+    @Test
+    void deltaKeepsLineEndingsAndAMissingFinalNewline() {
+        assertRoundTrip("one\r\ntwo\r\nthree\r\n", "one\r\ntwo\nthree\r\n"); // CRLF to LF on one line
+        assertRoundTrip("one\ntwo\n", "one\ntwo");                           // final newline dropped
+        assertRoundTrip("one\ntwo", "one\ntwo\n");                           // final newline added
+        assertRoundTrip("one\ntwo", "one\ntwo\nthree");                      // appended after a bare last line
+    }
+
+    @Test
+    void deltaRoundTripsPastTheEditDistanceLimit() {
+        int size = LineDiff.MAX_EDIT_DISTANCE + 500;
+        String from = IntStream.range(0, size).mapToObj(i -> "old " + i + "\n").collect(Collectors.joining());
+        String to = "kept\n" + IntStream.range(0, size).mapToObj(i -> "new " + i + "\n").collect(Collectors.joining());
+
+        assertRoundTrip("kept\n" + from, to);
+    }
+
+    @Test
+    void deltaAgainstTheWrongBaseIsRejected() {
+        byte[] delta = RevisionCodec.delta("a\nb\nc\n", "a\nb\nc\nd\n");
+
+        assertThatThrownBy(() -> RevisionCodec.apply("a\n", delta)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void assertRoundTrip(String from, String to) {
+        assertThat(RevisionCodec.apply(from, RevisionCodec.delta(from, to))).isEqualTo(to);
+    }
+}
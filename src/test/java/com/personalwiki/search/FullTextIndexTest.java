@@ -0,0 +1,65 @@
+package com.personalwiki.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextIndexTest {
+
+    @Test
+    void fuzzySearchRanksExactMatchesOfACommonTermAboveARareNearMatch() {
+        FullTextIndex index = new FullTextIndex();
+        // "invoice" is on half the pages, with long bodies: a low IDF and a low BM25
+        for (long id = 1; id <= 500; id++) {
+            String content = id % 2 == 0
+                    ? "The invoice was sent. " + "Filler text about other things. ".repeat(40)
+                    : "Nothing relevant here. " + "Filler text about other things. ".repeat(40);
+            index.index(page(id, "Page " + id, content));
+        }
+        // One page spells it with a typo, in the title and often: a high IDF and tf
+        index.index(page(1000, "Invoicr invoicr", "invoicr invoicr invoicr"));
+
+        FullTextIndex.Result result = index.search(SearchQuery.parse("invoice"), 0, 300, true);
+
+        List<Long> ids = result.hits().stream().map(FullTextIndex.Hit::pageId).toList();
+        assertThat(result.total()).isEqualTo(251);
+        assertThat(ids.subList(0, 250)).allMatch(id -> id % 2 == 0 && id <= 500);
+        assertThat(ids.get(250)).isEqualTo(1000L);
+        assertThat(result.terms()).contains("invoice", "invoicr");
+    }
+
+    @Test
+    void fuzzySearchStillFindsAMisspelledTermAlone() {
+        FullTextIndex index = new FullTextIndex();
+        index.index(page(1, "Deployment", "How to deploy the server"));
+
+        FullTextIndex.Result result = index.search(SearchQuery.parse("deplyment"), 0, 10, true);
+
+        assertThat(result.hits()).extracting(FullTextIndex.Hit::pageId).containsExactly(1L);
+    }
+
+    @Test
+    void metadataChecksumCoversTypeAndTagNames() {
+        FullTextIndex index = new FullTextIndex();
+        index.index(new PageDocument(1L, "Setup", "body", 7L, "Guide", List.of(3L, 4L), List.of("linux", "ops"),
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0)));
+        index.index(page(2, "Notes", "body"));
+
+        long expected = FullTextIndex.typeHash(1, 7L, "Guide") + FullTextIndex.tagHash(1, "linux")
+                + FullTextIndex.tagHash(1, "ops") + FullTextIndex.typeHash(2, null, null);
+        assertThat(index.metadataChecksum()).isEqualTo(expected);
+
+        // A tag rename leaves updatedAt alone but must show in the checksum
+        index.index(new PageDocument(1L, "Setup", "body", 7L, "Guide", List.of(3L, 4L), List.of("linux", "devops"),
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0)));
+        assertThat(index.metadataChecksum()).isNotEqualTo(expected);
+    }
+
+    private static PageDocument page(long id, String title, String content) {
+        return new PageDocument(id, title, content, null, null, List.of(), List.of(),
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+}
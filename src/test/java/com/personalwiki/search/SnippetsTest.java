@@ -0,0 +1,47 @@
+package com.personalwiki.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnippetsTest {
+
+    @Test
+    void marksTheMatchesInsideTheWindow() {
+        String content = "Intro. The deploy script copies the jar, then the deploy ends.";
+        int first = content.indexOf("deploy");
+        int second = content.lastIndexOf("deploy");
+
+        List<String> snippets = Snippets.build(content, new int[]{first, second}, 2, 160);
+
+        assertThat(snippets).containsExactly(
+                "Intro. The <mark>deploy</mark> script copies the jar, then the <mark>deploy</mark> ends.");
+    }
+
+    @Test
+    void ignoresOffsetsPastTheEndOfAShorterBody() {
+        // The index still holds the offsets of a longer, older version of the page
+        String content = "A short body now.";
+
+        List<String> snippets = Snippets.build(content, new int[]{5_000, 12_000}, 2, 160);
+
+        assertThat(snippets).containsExactly("A short body now.");
+    }
+
+    @Test
+    void keepsTheOffsetsThatStillFit() {
+        String content = "alpha beta gamma";
+
+        List<String> snippets = Snippets.build(content, new int[]{6, 900}, 2, 160);
+
+        assertThat(snippets).containsExactly("alpha <mark>beta</mark> gamma");
+    }
+
+    @Test
+    void needsTheTextUpToTheLastMatchAndItsWindow() {
+        assertThat(Snippets.charsNeeded(new int[]{10, 300}, 160)).isEqualTo(461);
+        assertThat(Snippets.charsNeeded(new int[0], 160)).isEqualTo(161);
+    }
+}
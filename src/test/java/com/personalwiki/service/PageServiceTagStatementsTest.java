@@ -0,0 +1,118 @@
+package com.personalwiki.service;
+
+import com.personalwiki.dto.PageRequestDTO;
+import com.personalwiki.model.Page;
+import com.personalwiki.model.Tag;
+import org.hibernate.Hibernate;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saving a page resolves its tags in a fixed number of statements, however many tags it has
+ * and whether they exist yet, and without loading the pages of those tags.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tag-statements;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.personalwiki.service.PageServiceTagStatementsTest$Recorder"
+})
+class PageServiceTagStatementsTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDirs(DynamicPropertyRegistry registry) {
+        registry.add("piki.search.index-dir", () -> dataDir.resolve("search-index").toString());
+        registry.add("piki.jobs.dir", () -> dataDir.resolve("jobs").toString());
+        registry.add("piki.config.file", () -> dataDir.resolve("application.properties").toString());
+    }
+
+    @Autowired
+    private PageService pageService;
+
+    @Test
+    void createPageStatementsDoNotDependOnTheNumberOfTags() {
+        // Warms up the caches and the id sequences
+        statementsToCreate("warm-up", 3);
+
+        List<String> few = statementsToCreate("few", 5);
+        List<String> many = statementsToCreate("many", 40);
+
+        assertThat(many).hasSameSizeAs(few);
+    }
+
+    @Test
+    void createPageDoesNotLoadThePagesOfItsTags() {
+        List<String> existing = List.of("lazy-existing-1", "lazy-existing-2");
+        pageService.createPage(page("lazy setup", existing));
+
+        Page saved = pageService.createPage(page("lazy page", existing));
+
+        assertThat(saved.getTags()).hasSize(existing.size());
+        for (Tag tag : saved.getTags()) {
+            assertThat(Hibernate.isInitialized(tag.getPages())).as("pages of tag %s", tag.getName()).isFalse();
+        }
+    }
+
+    /** The statements of a page with {@code n} existing and {@code n} new tags, sequence calls excepted. */
+    private List<String> statementsToCreate(String prefix, int n) {
+        List<String> existing = IntStream.range(0, n).mapToObj(i -> prefix + "-existing-" + i).toList();
+        List<String> created = IntStream.range(0, n).mapToObj(i -> prefix + "-new-" + i).toList();
+        pageService.createPage(page(prefix + " setup", existing));
+
+        List<String> tags = new ArrayList<>(existing);
+        tags.addAll(created);
+        Recorder.start();
+        try {
+            pageService.createPage(page(prefix + " page", tags));
+        } finally {
+            Recorder.stop();
+        }
+        return Recorder.statements.stream()
+                .filter(sql -> !sql.toLowerCase(Locale.ROOT).contains("next value for"))
+                .toList();
+    }
+
+    private static PageRequestDTO page(String title, List<String> tags) {
+        PageRequestDTO dto = new PageRequestDTO();
+        dto.setTitle(title);
+        dto.setContent("Body of " + title);
+        dto.setTags(tags);
+        return dto;
+    }
+
+    /** Records the statements Hibernate prepares on the test thread while started. */
+    public static class Recorder implements StatementInspector {
+        static final List<String> statements = new ArrayList<>();
+        private static volatile Thread recording;
+
+        static void start() {
+            statements.clear();
+            recording = Thread.currentThread();
+        }
+
+        static void stop() {
+            recording = null;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recording) statements.add(sql);
+            return sql;
+        }
+    }
+}